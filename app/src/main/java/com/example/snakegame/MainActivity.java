@@ -11,8 +11,10 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.Direction;
 import com.example.snakegame.data.model.Player;
+import com.example.snakegame.data.model.WorldSnapshot;
+import com.example.snakegame.engine.SnapshotBuffer;
 import com.example.snakegame.presentation.contract.GameContract;
 import com.example.snakegame.presentation.presenter.GamePresenter;
 import com.example.snakegame.ui.view.GameSurfaceView;
@@ -145,25 +147,25 @@ public class MainActivity extends AppCompatActivity implements GameContract.View
         // 设置方向按钮点击事件
         btnUp.setOnClickListener(v -> {
             if (gameStarted) {
-                presenter.handlePlayerMove("UP");
+                presenter.handlePlayerMove(Direction.UP);
             }
         });
         
         btnDown.setOnClickListener(v -> {
             if (gameStarted) {
-                presenter.handlePlayerMove("DOWN");
+                presenter.handlePlayerMove(Direction.DOWN);
             }
         });
         
         btnLeft.setOnClickListener(v -> {
             if (gameStarted) {
-                presenter.handlePlayerMove("LEFT");
+                presenter.handlePlayerMove(Direction.LEFT);
             }
         });
         
         btnRight.setOnClickListener(v -> {
             if (gameStarted) {
-                presenter.handlePlayerMove("RIGHT");
+                presenter.handlePlayerMove(Direction.RIGHT);
             }
         });
     }
@@ -252,9 +254,7 @@ public class MainActivity extends AppCompatActivity implements GameContract.View
     }
     
     @Override
-    public void onGameWorldUpdated(GameWorld gameWorld) {
-        gameSurfaceView.updateGameWorld(gameWorld);
-
+    public void onWorldSnapshotUpdated(WorldSnapshot snapshot) {
         // 更新实际的网格大小
     if (presenter != null) {
         presenter.updateGridSize(
@@ -264,14 +264,19 @@ public class MainActivity extends AppCompatActivity implements GameContract.View
     }
         
         // 更新分数显示
-        if (gameWorld.getMySnake() != null) {
-            tvScore.setText("Score: " + gameWorld.getMySnake().getScore());
+        int mySnakeIndex = snapshot.getMySnakeIndex();
+        if (mySnakeIndex >= 0) {
+            tvScore.setText("Score: " + snapshot.getScore(mySnakeIndex));
         }
         
         // 更新排行榜
-        if (gameWorld.getLeaderboard() != null) {
-            updateLeaderboard(gameWorld.getLeaderboard());
-        }
+        updateLeaderboard(snapshot.getLeaderboard());
+    }
+    
+    @Override
+    public void attachRenderSnapshots(SnapshotBuffer snapshots) {
+        // 游戏画面由GameSurfaceView的渲染线程按屏幕刷新率绘制
+        gameSurfaceView.setSnapshotSource(snapshots);
     }
     
     @Override
@@ -0,0 +1,41 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 颜色字符串与ARGB整数之间的转换。颜色在设置时解析一次，绘制时直接使用整数；
+ * 字符串只用于网络传输和保存。不依赖Android，引擎和回放测试中也可以使用。
+ * 支持 "#RRGGBB" 和 "#AARRGGBB" 两种格式，与 Color.parseColor 对这两种格式的结果相同。
+ */
+public final class ArgbColor {
+    // 无法解析时使用的颜色（与默认的玩家颜色相同）
+    public static final int DEFAULT = 0xFFFF0000;
+
+    private ArgbColor() {
+    }
+
+    /**
+     * 解析颜色字符串，格式错误或为null时返回defaultColor
+     */
+    public static int parse(String color, int defaultColor) {
+        if (color == null || color.isEmpty() || color.charAt(0) != '#') {
+            return defaultColor;
+        }
+        int digits = color.length() - 1;
+        if (digits != 6 && digits != 8) {
+            return defaultColor;
+        }
+        int value = 0;
+        for (int i = 1; i <= digits; i++) {
+            int digit = Character.digit(color.charAt(i), 16);
+            if (digit < 0) {
+                return defaultColor;
+            }
+            value = (value << 4) | digit;
+        }
+        // 没有透明度时为不透明
+        return digits == 6 ? 0xFF000000 | value : value;
+    }
+
+    public static int parse(String color) {
+        return parse(color, DEFAULT);
+    }
+}
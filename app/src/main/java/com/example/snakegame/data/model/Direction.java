@@ -0,0 +1,60 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 蛇的移动方向。位移和反方向都预先计算好，模拟过程中不做字符串比较；
+ * code用于网络传输（一个字节），字符串形式只在UI和协议边界上使用。
+ */
+public enum Direction {
+    UP(0, -1),
+    DOWN(0, 1),
+    LEFT(-1, 0),
+    RIGHT(1, 0);
+
+    private static final Direction[] VALUES = values();
+    private static final Direction[] OPPOSITES = {DOWN, UP, RIGHT, LEFT};
+
+    private final int dx;
+    private final int dy;
+
+    Direction(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public int getDx() {
+        return dx;
+    }
+
+    public int getDy() {
+        return dy;
+    }
+
+    public Direction opposite() {
+        return OPPOSITES[ordinal()];
+    }
+
+    public boolean isOpposite(Direction other) {
+        return other != null && OPPOSITES[ordinal()] == other;
+    }
+
+    // 网络传输用的编码
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    // 根据编码取方向，非法编码返回null
+    public static Direction fromCode(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+    }
+
+    // 解析"UP"/"DOWN"/"LEFT"/"RIGHT"（不区分大小写），无法识别时返回null
+    public static Direction fromString(String value) {
+        if (value == null) return null;
+        for (Direction direction : VALUES) {
+            if (direction.name().equalsIgnoreCase(value)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
@@ -12,6 +12,8 @@ public class Food {
     private FoodType type;
     private int value;
     private int lengthChange; // 对蛇身长度的影响
+    private int slot = -1;    // 在GameWorld食物列表中的下标，由GameWorld维护
+    private int bucketSlot = -1; // 在FoodIndex桶中的下标，由FoodIndex维护
     
     public Food() {
         this.type = FoodType.APPLE;
@@ -49,6 +51,39 @@ public class Food {
         this.position = position;
     }
     
+    // 复用已有的Point对象设置位置
+    public void setPosition(int x, int y) {
+        if (position == null) {
+            position = new Point(x, y);
+        } else {
+            position.setX(x);
+            position.setY(y);
+        }
+    }
+    
+    // 由FoodPool复用时重置为新食物
+    void reset(FoodType type) {
+        setType(type);
+        slot = -1;
+        bucketSlot = -1;
+    }
+    
+    int getSlot() {
+        return slot;
+    }
+    
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+    
+    int getBucketSlot() {
+        return bucketSlot;
+    }
+    
+    void setBucketSlot(int bucketSlot) {
+        this.bucketSlot = bucketSlot;
+    }
+    
     public FoodType getType() {
         return type;
     }
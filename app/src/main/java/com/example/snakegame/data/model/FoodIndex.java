@@ -0,0 +1,125 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 食物的空间索引：食物保存在所在区块（{@link WorldChunk}）的 BUCKET_SIZE x BUCKET_SIZE 桶中。
+ * 增删都是O(1)，矩形查询只访问与矩形相交的已创建区块中的桶，
+ * 代价与桶数加结果数成正比，而与世界上的食物总数和地图大小无关。
+ */
+public class FoodIndex {
+    public static final int BUCKET_SIZE = WorldChunk.BLOCK_SIZE;
+
+    /**
+     * 矩形查询的回调
+     */
+    public interface FoodVisitor {
+        void visit(Food food);
+    }
+
+    private final OccupancyGrid grid;
+
+    FoodIndex(OccupancyGrid grid) {
+        this.grid = grid;
+    }
+
+    public void add(Food food) {
+        Point position = food.getPosition();
+        int x = position.getX();
+        int y = position.getY();
+        if (!grid.isInside(x, y)) return;
+
+        grid.getOrCreateChunk(grid.chunkIndex(x, y)).addFood(OccupancyGrid.cellIndex(x, y), food);
+    }
+
+    public void remove(Food food) {
+        Point position = food.getPosition();
+        int x = position.getX();
+        int y = position.getY();
+        if (!grid.isInside(x, y)) return;
+
+        int chunkIndex = grid.chunkIndex(x, y);
+        WorldChunk chunk = grid.getChunk(chunkIndex);
+        if (chunk != null && chunk.removeFood(OccupancyGrid.cellIndex(x, y), food)) {
+            grid.releaseIfEmpty(chunkIndex);
+        }
+    }
+
+    // 矩形 [left, right) x [top, bottom) 内的食物数量
+    public int countInRect(int left, int top, int right, int bottom) {
+        int count = 0;
+        int chunkLeft = Math.max(0, left >> WorldChunk.CHUNK_SHIFT);
+        int chunkTop = Math.max(0, top >> WorldChunk.CHUNK_SHIFT);
+        int chunkRight = Math.min(grid.getChunkCols() - 1, (right - 1) >> WorldChunk.CHUNK_SHIFT);
+        int chunkBottom = Math.min(grid.getChunkRows() - 1, (bottom - 1) >> WorldChunk.CHUNK_SHIFT);
+
+        for (int cy = chunkTop; cy <= chunkBottom; cy++) {
+            for (int cx = chunkLeft; cx <= chunkRight; cx++) {
+                WorldChunk chunk = grid.getChunk(cy * grid.getChunkCols() + cx);
+                if (chunk == null || chunk.foodCount == 0) continue;
+
+                int originX = cx << WorldChunk.CHUNK_SHIFT;
+                int originY = cy << WorldChunk.CHUNK_SHIFT;
+                for (int bucket = 0; bucket < WorldChunk.BLOCK_COUNT; bucket++) {
+                    int size = chunk.foodBucketSizes[bucket];
+                    if (size == 0) continue;
+
+                    // 完全落在矩形内的桶直接累加
+                    int bucketX = originX + (bucket % WorldChunk.BLOCKS_PER_ROW) * BUCKET_SIZE;
+                    int bucketY = originY + (bucket / WorldChunk.BLOCKS_PER_ROW) * BUCKET_SIZE;
+                    if (bucketX >= left && bucketX + BUCKET_SIZE <= right &&
+                        bucketY >= top && bucketY + BUCKET_SIZE <= bottom) {
+                        count += size;
+                        continue;
+                    }
+                    if (bucketX >= right || bucketX + BUCKET_SIZE <= left ||
+                        bucketY >= bottom || bucketY + BUCKET_SIZE <= top) {
+                        continue;
+                    }
+                    Food[] foods = chunk.foodBuckets[bucket];
+                    for (int i = 0; i < size; i++) {
+                        if (contains(foods[i].getPosition(), left, top, right, bottom)) {
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // 遍历矩形 [left, right) x [top, bottom) 内的食物
+    public void forEachInRect(int left, int top, int right, int bottom, FoodVisitor visitor) {
+        int chunkLeft = Math.max(0, left >> WorldChunk.CHUNK_SHIFT);
+        int chunkTop = Math.max(0, top >> WorldChunk.CHUNK_SHIFT);
+        int chunkRight = Math.min(grid.getChunkCols() - 1, (right - 1) >> WorldChunk.CHUNK_SHIFT);
+        int chunkBottom = Math.min(grid.getChunkRows() - 1, (bottom - 1) >> WorldChunk.CHUNK_SHIFT);
+
+        for (int cy = chunkTop; cy <= chunkBottom; cy++) {
+            for (int cx = chunkLeft; cx <= chunkRight; cx++) {
+                WorldChunk chunk = grid.getChunk(cy * grid.getChunkCols() + cx);
+                if (chunk == null || chunk.foodCount == 0) continue;
+
+                int originX = cx << WorldChunk.CHUNK_SHIFT;
+                int originY = cy << WorldChunk.CHUNK_SHIFT;
+                for (int bucket = 0; bucket < WorldChunk.BLOCK_COUNT; bucket++) {
+                    int bucketX = originX + (bucket % WorldChunk.BLOCKS_PER_ROW) * BUCKET_SIZE;
+                    int bucketY = originY + (bucket / WorldChunk.BLOCKS_PER_ROW) * BUCKET_SIZE;
+                    if (bucketX >= right || bucketX + BUCKET_SIZE <= left ||
+                        bucketY >= bottom || bucketY + BUCKET_SIZE <= top) {
+                        continue;
+                    }
+                    Food[] foods = chunk.foodBuckets[bucket];
+                    for (int i = 0; i < chunk.foodBucketSizes[bucket]; i++) {
+                        if (contains(foods[i].getPosition(), left, top, right, bottom)) {
+                            visitor.visit(foods[i]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean contains(Point position, int left, int top, int right, int bottom) {
+        return position.getX() >= left && position.getX() < right &&
+               position.getY() >= top && position.getY() < bottom;
+    }
+}
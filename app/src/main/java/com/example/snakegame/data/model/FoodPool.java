@@ -0,0 +1,48 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 可复用的食物对象池。被吃掉或随旧世界丢弃的食物回收到池中，生成新食物时优先从池中取，
+ * 稳定运行时生成食物不再分配新对象。只在模拟线程中使用。
+ */
+public final class FoodPool {
+    private Food[] free = new Food[32];
+    private int freeCount;
+    private int createdCount;
+
+    /**
+     * 取一个指定类型的食物，池为空时才新建
+     */
+    public Food obtain(Food.FoodType type) {
+        Food food;
+        if (freeCount > 0) {
+            food = free[--freeCount];
+            free[freeCount] = null;
+        } else {
+            food = new Food();
+            createdCount++;
+        }
+        food.reset(type);
+        return food;
+    }
+
+    // 回收一个已经从世界中移除的食物
+    public void recycle(Food food) {
+        if (food == null) return;
+        if (freeCount == free.length) {
+            Food[] grown = new Food[freeCount * 2];
+            System.arraycopy(free, 0, grown, 0, freeCount);
+            free = grown;
+        }
+        free[freeCount++] = food;
+    }
+
+    // 池中空闲的食物数量
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    // 池总共创建过的食物数量
+    public int getCreatedCount() {
+        return createdCount;
+    }
+}
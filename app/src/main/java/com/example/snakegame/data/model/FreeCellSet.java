@@ -0,0 +1,142 @@
+package com.example.snakegame.data.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * 世界地图上空闲格子（没有蛇也没有食物）的集合，用于放置新食物。
+ * 每个区块按 BLOCK_SIZE x BLOCK_SIZE 的小块用“与末尾交换后删除”的数组保存空闲格子，
+ * 并记录每个格子在数组中的下标，增删都是O(1)；没有创建的区块视为全部空闲，不占内存。
+ * 各区块的空闲数量用树状数组维护，整张地图随机取一个空闲格子是O(log 区块数)，
+ * 与地图被占满的程度无关。由 {@link OccupancyGrid} 在格子占用状态变化时增量更新。
+ */
+public class FreeCellSet {
+    public static final int BLOCK_SIZE = WorldChunk.BLOCK_SIZE;
+    private static final int BLOCK_SHIFT = WorldChunk.BLOCK_SHIFT;
+
+    private final OccupancyGrid grid;
+    private final int[] tree;       // 各区块空闲数量的树状数组（下标从1开始）
+    private final int treeMask;
+    private int totalFree;
+
+    FreeCellSet(OccupancyGrid grid) {
+        this.grid = grid;
+        int chunkCount = grid.getChunkCols() * grid.getChunkRows();
+        this.tree = new int[chunkCount + 1];
+        this.treeMask = Integer.highestOneBit(Math.max(1, chunkCount));
+
+        // 初始时所有格子都是空闲的
+        for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+            onFreeCountChanged(chunkIndex, grid.chunkWidth(chunkIndex) * grid.chunkHeight(chunkIndex));
+        }
+    }
+
+    public int size() {
+        return totalFree;
+    }
+
+    public boolean isFree(int x, int y) {
+        if (!grid.isInside(x, y)) return false;
+        WorldChunk chunk = grid.getChunk(grid.chunkIndex(x, y));
+        return chunk == null || chunk.freeSlot[OccupancyGrid.cellIndex(x, y)] >= 0;
+    }
+
+    // 由OccupancyGrid在区块的空闲数量变化时调用
+    void onFreeCountChanged(int chunkIndex, int delta) {
+        for (int i = chunkIndex + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        totalFree += delta;
+    }
+
+    /**
+     * 在整张地图上等概率取一个空闲格子
+     *
+     * @return 压缩坐标（见PackedPoint），没有空闲格子时返回-1
+     */
+    public int randomCell(SplittableRandom random) {
+        if (totalFree == 0) return -1;
+
+        // 在树状数组上找到第k个空闲格子所在的区块
+        int k = random.nextInt(totalFree);
+        int chunkIndex = 0;
+        for (int step = treeMask; step > 0; step >>= 1) {
+            int next = chunkIndex + step;
+            if (next < tree.length && tree[next] <= k) {
+                chunkIndex = next;
+                k -= tree[next];
+            }
+        }
+
+        int originX = (chunkIndex % grid.getChunkCols()) << WorldChunk.CHUNK_SHIFT;
+        int originY = (chunkIndex / grid.getChunkCols()) << WorldChunk.CHUNK_SHIFT;
+        WorldChunk chunk = grid.getChunk(chunkIndex);
+        if (chunk == null) {
+            // 没有创建的区块：按行顺序取第k个格子
+            int width = grid.chunkWidth(chunkIndex);
+            return PackedPoint.pack(originX + k % width, originY + k / width);
+        }
+        int cell = chunk.freeCellAt(k);
+        return PackedPoint.pack(originX + (cell & (WorldChunk.CHUNK_SIZE - 1)), originY + (cell >> WorldChunk.CHUNK_SHIFT));
+    }
+
+    /**
+     * 在与矩形 [left, right) x [top, bottom) 相交的小块中等概率取一个空闲格子。
+     * 矩形会向外对齐到小块的边界，所以结果可能落在矩形外不超过一个小块的范围内。
+     *
+     * @return 压缩坐标（见PackedPoint），这些小块中没有空闲格子时返回-1
+     */
+    public int randomCellNear(int left, int top, int right, int bottom, SplittableRandom random) {
+        int blockLeft = Math.max(0, left >> BLOCK_SHIFT);
+        int blockTop = Math.max(0, top >> BLOCK_SHIFT);
+        int blockRight = Math.min((grid.getCols() - 1) >> BLOCK_SHIFT, (right - 1) >> BLOCK_SHIFT);
+        int blockBottom = Math.min((grid.getRows() - 1) >> BLOCK_SHIFT, (bottom - 1) >> BLOCK_SHIFT);
+        if (blockLeft > blockRight || blockTop > blockBottom) return -1;
+
+        int total = 0;
+        for (int by = blockTop; by <= blockBottom; by++) {
+            for (int bx = blockLeft; bx <= blockRight; bx++) {
+                total += blockFreeCount(bx, by);
+            }
+        }
+        if (total == 0) return -1;
+
+        int k = random.nextInt(total);
+        for (int by = blockTop; by <= blockBottom; by++) {
+            for (int bx = blockLeft; bx <= blockRight; bx++) {
+                int count = blockFreeCount(bx, by);
+                if (k < count) {
+                    return blockCellAt(bx, by, k);
+                }
+                k -= count;
+            }
+        }
+        return -1;
+    }
+
+    // 小块(bx, by)中的空闲格子数
+    private int blockFreeCount(int bx, int by) {
+        int x = bx << BLOCK_SHIFT;
+        int y = by << BLOCK_SHIFT;
+        WorldChunk chunk = grid.getChunk(grid.chunkIndex(x, y));
+        if (chunk == null) {
+            return Math.min(BLOCK_SIZE, grid.getCols() - x) * Math.min(BLOCK_SIZE, grid.getRows() - y);
+        }
+        return chunk.blockFree[WorldChunk.blockOf(OccupancyGrid.cellIndex(x, y))];
+    }
+
+    // 小块(bx, by)中的第k个空闲格子
+    private int blockCellAt(int bx, int by, int k) {
+        int x = bx << BLOCK_SHIFT;
+        int y = by << BLOCK_SHIFT;
+        WorldChunk chunk = grid.getChunk(grid.chunkIndex(x, y));
+        if (chunk == null) {
+            int width = Math.min(BLOCK_SIZE, grid.getCols() - x);
+            return PackedPoint.pack(x + k % width, y + k / width);
+        }
+        int block = WorldChunk.blockOf(OccupancyGrid.cellIndex(x, y));
+        int cell = chunk.freeCells[block * WorldChunk.BLOCK_AREA + k];
+        int originX = x & ~(WorldChunk.CHUNK_SIZE - 1);
+        int originY = y & ~(WorldChunk.CHUNK_SIZE - 1);
+        return PackedPoint.pack(originX + (cell & (WorldChunk.CHUNK_SIZE - 1)), originY + (cell >> WorldChunk.CHUNK_SHIFT));
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.snakegame.data.model;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 public class GameWorld {
     private int gridSize;
@@ -20,7 +22,13 @@ public class GameWorld {
     private Snake mySnake;
     private List<Snake> otherSnakes;
     private List<Food> foods;
-    private List<Player> leaderboard;
+    private final Leaderboard leaderboard = new Leaderboard();
+    // 世界中所有蛇的数据按列存放在这张表里，Snake对象只是其中一行的视图
+    private final SnakeTable snakeTable = new SnakeTable();
+    
+    // 占用网格：按需根据世界尺寸创建，之后随蛇和食物的变化增量更新
+    private OccupancyGrid occupancyGrid;
+    private int nextSnakeId = 1;
     
     public GameWorld() {
         this.gameRunning = false;
@@ -71,6 +79,7 @@ public class GameWorld {
     
     public void setWorldMapCols(int worldMapCols) {
         this.worldMapCols = worldMapCols;
+        this.occupancyGrid = null;
     }
     
     public int getWorldMapRows() {
@@ -79,6 +88,7 @@ public class GameWorld {
     
     public void setWorldMapRows(int worldMapRows) {
         this.worldMapRows = worldMapRows;
+        this.occupancyGrid = null;
     }
     
     public int getViewOffsetX() {
@@ -100,22 +110,30 @@ public class GameWorld {
     // 辅助方法：更新视野位置以蛇头为中心
     public void updateViewToCenter(Point snakeHead) {
         if (snakeHead != null) {
-            // 计算视野偏移，使蛇头位于视野中心
-            this.viewOffsetX = snakeHead.getX() - gridCols / 2;
-            this.viewOffsetY = snakeHead.getY() - gridRows / 2;
-            
-            // 确保视野不超出世界地图边界
-            this.viewOffsetX = Math.max(0, Math.min(this.viewOffsetX, worldMapCols - gridCols));
-            this.viewOffsetY = Math.max(0, Math.min(this.viewOffsetY, worldMapRows - gridRows));
+            updateViewToCenter(snakeHead.getX(), snakeHead.getY());
         }
     }
     
+    public void updateViewToCenter(int headX, int headY) {
+        // 计算视野偏移，使蛇头位于视野中心
+        this.viewOffsetX = headX - gridCols / 2;
+        this.viewOffsetY = headY - gridRows / 2;
+        
+        // 确保视野不超出世界地图边界
+        this.viewOffsetX = Math.max(0, Math.min(this.viewOffsetX, worldMapCols - gridCols));
+        this.viewOffsetY = Math.max(0, Math.min(this.viewOffsetY, worldMapRows - gridRows));
+    }
+    
     // 辅助方法：检查世界坐标是否在当前视野内
     public boolean isInViewport(Point worldPoint) {
-        return worldPoint.getX() >= viewOffsetX && 
-               worldPoint.getX() < viewOffsetX + gridCols &&
-               worldPoint.getY() >= viewOffsetY && 
-               worldPoint.getY() < viewOffsetY + gridRows;
+        return isInViewport(worldPoint.getX(), worldPoint.getY());
+    }
+    
+    public boolean isInViewport(int worldX, int worldY) {
+        return worldX >= viewOffsetX && 
+               worldX < viewOffsetX + gridCols &&
+               worldY >= viewOffsetY && 
+               worldY < viewOffsetY + gridRows;
     }
     
     // 辅助方法：将世界坐标转换为视野坐标
@@ -126,6 +144,14 @@ public class GameWorld {
         );
     }
     
+    // 压缩坐标版本（见PackedPoint），不创建Point对象
+    public int worldToViewport(int packedWorldPoint) {
+        return PackedPoint.pack(
+            PackedPoint.x(packedWorldPoint) - viewOffsetX,
+            PackedPoint.y(packedWorldPoint) - viewOffsetY
+        );
+    }
+    
     // 辅助方法：将视野坐标转换为世界坐标
     public Point viewportToWorld(Point viewPoint) {
         return new Point(
@@ -134,6 +160,13 @@ public class GameWorld {
         );
     }
     
+    public int viewportToWorld(int packedViewPoint) {
+        return PackedPoint.pack(
+            PackedPoint.x(packedViewPoint) + viewOffsetX,
+            PackedPoint.y(packedViewPoint) + viewOffsetY
+        );
+    }
+    
     // 其他getters和setters...
     public long getGameSpeed() {
         return gameSpeed;
@@ -156,7 +189,18 @@ public class GameWorld {
     }
     
     public void setMySnake(Snake mySnake) {
+        if (this.mySnake != null && this.mySnake != mySnake) {
+            snakeTable.detach(this.mySnake);
+        }
         this.mySnake = mySnake;
+        attachSnake(mySnake);
+        this.occupancyGrid = null;
+        rebuildLeaderboard();
+    }
+    
+    // 按列遍历所有蛇时使用（行可能有空闲，需要跳过getSnake为null的行）
+    public SnakeTable getSnakeTable() {
+        return snakeTable;
     }
     
     public List<Snake> getOtherSnakes() {
@@ -164,7 +208,19 @@ public class GameWorld {
     }
     
     public void setOtherSnakes(List<Snake> otherSnakes) {
+        if (this.otherSnakes != null) {
+            for (int i = 0; i < this.otherSnakes.size(); i++) {
+                snakeTable.detach(this.otherSnakes.get(i));
+            }
+        }
         this.otherSnakes = otherSnakes;
+        if (otherSnakes != null) {
+            for (int i = 0; i < otherSnakes.size(); i++) {
+                attachSnake(otherSnakes.get(i));
+            }
+        }
+        this.occupancyGrid = null;
+        rebuildLeaderboard();
     }
     
     public List<Food> getFoods() {
@@ -173,13 +229,181 @@ public class GameWorld {
     
     public void setFoods(List<Food> foods) {
         this.foods = foods;
+        if (foods != null) {
+            for (int i = 0; i < foods.size(); i++) {
+                foods.get(i).setSlot(i);
+            }
+        }
+        this.occupancyGrid = null;
     }
     
+    // 按分数排序的排行榜（只读视图，随分数变化自动更新）
     public List<Player> getLeaderboard() {
+        return leaderboard.asList();
+    }
+    
+    public Leaderboard getRanking() {
         return leaderboard;
     }
     
-    public void setLeaderboard(List<Player> leaderboard) {
-        this.leaderboard = leaderboard;
+    // ---------------- 占用网格 ----------------
+    
+    public OccupancyGrid getOccupancyGrid() {
+        if (occupancyGrid == null) {
+            rebuildOccupancyGrid();
+        }
+        return occupancyGrid;
+    }
+    
+    // 食物的空间索引，与占用网格共用区块
+    public FoodIndex getFoodIndex() {
+        return getOccupancyGrid().getFoodIndex();
+    }
+    
+    // 矩形 [left, right) x [top, bottom) 内的食物数量
+    public int countFoodsInRect(int left, int top, int right, int bottom) {
+        return getFoodIndex().countInRect(left, top, right, bottom);
+    }
+    
+    // 当前视野内的食物数量
+    public int countFoodsInViewport() {
+        return countFoodsInRect(viewOffsetX, viewOffsetY, viewOffsetX + gridCols, viewOffsetY + gridRows);
+    }
+    
+    // 遍历当前视野内的食物
+    public void forEachFoodInViewport(FoodIndex.FoodVisitor visitor) {
+        getFoodIndex().forEachInRect(viewOffsetX, viewOffsetY, viewOffsetX + gridCols, viewOffsetY + gridRows, visitor);
+    }
+    
+    // 格子上是否已有蛇或食物（地图外视为被占用）
+    public boolean isPositionOccupied(int x, int y) {
+        return getOccupancyGrid().isOccupied(x, y);
+    }
+    
+    /**
+     * 随机取一个空闲格子（没有蛇也没有食物）
+     *
+     * @return 压缩坐标（见PackedPoint），地图已满时返回-1
+     */
+    public int randomFreeCell(SplittableRandom random) {
+        return getOccupancyGrid().getFreeCells().randomCell(random);
+    }
+    
+    // 在矩形 [left, right) x [top, bottom) 附近随机取一个空闲格子，没有则返回-1
+    public int randomFreeCellNear(int left, int top, int right, int bottom, SplittableRandom random) {
+        return getOccupancyGrid().getFreeCells().randomCellNear(left, top, right, bottom, random);
+    }
+    
+    // 格子上是否有除snake之外的活着的蛇
+    public boolean hasOtherSnakeAt(int x, int y, Snake snake) {
+        return getOccupancyGrid().hasOtherSnake(x, y, snake.getId());
+    }
+    
+    // 蛇头前进到新位置
+    public void addSnakeHead(Snake snake, int x, int y) {
+        snake.pushHead(x, y);
+        getOccupancyGrid().addSegment(x, y, snake.getId());
+    }
+    
+    // 移除蛇尾（至少保留蛇头），返回是否移除
+    public boolean removeSnakeTail(Snake snake) {
+        if (snake.getLength() <= 1) return false;
+        getOccupancyGrid().removeSegment(snake.getTailX(), snake.getTailY());
+        return snake.shrink();
+    }
+    
+    // 蛇死亡后身体不再占用格子
+    public void removeSnakeFromGrid(Snake snake) {
+        OccupancyGrid grid = getOccupancyGrid();
+        for (int i = 0; i < snake.getLength(); i++) {
+            grid.removeSegment(snake.getSegmentX(i), snake.getSegmentY(i));
+        }
+    }
+    
+    public void addFood(Food food) {
+        if (foods == null) {
+            foods = new ArrayList<>();
+        }
+        food.setSlot(foods.size());
+        foods.add(food);
+        Point position = food.getPosition();
+        OccupancyGrid grid = getOccupancyGrid();
+        grid.setFood(position.getX(), position.getY(), food.getSlot() + 1);
+        grid.getFoodIndex().add(food);
+    }
+    
+    // 从食物列表中移除（与末尾元素交换后删除，O(1)）
+    public void removeFood(Food food) {
+        int slot = food.getSlot();
+        if (foods == null || slot < 0 || slot >= foods.size() || foods.get(slot) != food) return;
+        
+        OccupancyGrid grid = getOccupancyGrid();
+        Point position = food.getPosition();
+        grid.clearFood(position.getX(), position.getY());
+        grid.getFoodIndex().remove(food);
+        
+        int lastSlot = foods.size() - 1;
+        Food last = foods.remove(lastSlot);
+        if (last != food) {
+            foods.set(slot, last);
+            last.setSlot(slot);
+            grid.setFood(last.getPosition().getX(), last.getPosition().getY(), slot + 1);
+        }
+        food.setSlot(-1);
+    }
+    
+    // 获取格子上的食物，没有则返回null
+    public Food getFoodAt(int x, int y) {
+        int ref = getOccupancyGrid().foodAt(x, y);
+        return ref == OccupancyGrid.EMPTY ? null : foods.get(ref - 1);
+    }
+    
+    // 排行榜包含自己的蛇（死亡后分数固定，仍然保留）和其他活着的蛇
+    private void rebuildLeaderboard() {
+        leaderboard.clear();
+        leaderboard.add(mySnake);
+        if (otherSnakes != null) {
+            for (int i = 0; i < otherSnakes.size(); i++) {
+                Snake snake = otherSnakes.get(i);
+                if (snake.isAlive()) {
+                    leaderboard.add(snake);
+                }
+            }
+        }
+    }
+    
+    // 把蛇搬进世界的表中并分配id
+    private void attachSnake(Snake snake) {
+        if (snake == null) return;
+        snakeTable.attach(snake);
+        if (snake.getId() == 0) {
+            snake.setId(nextSnakeId++);
+        }
+    }
+    
+    // 根据当前的蛇和食物重建占用网格
+    private void rebuildOccupancyGrid() {
+        occupancyGrid = new OccupancyGrid(worldMapCols, worldMapRows);
+        indexSnake(mySnake);
+        if (otherSnakes != null) {
+            for (Snake snake : otherSnakes) {
+                indexSnake(snake);
+            }
+        }
+        if (foods != null) {
+            for (int i = 0; i < foods.size(); i++) {
+                Food food = foods.get(i);
+                Point position = food.getPosition();
+                occupancyGrid.setFood(position.getX(), position.getY(), i + 1);
+                occupancyGrid.getFoodIndex().add(food);
+            }
+        }
+    }
+    
+    private void indexSnake(Snake snake) {
+        if (snake == null || !snake.isAlive()) return;
+        for (int i = 0; i < snake.getLength(); i++) {
+            occupancyGrid.addSegment(snake.getSegmentX(i), snake.getSegmentY(i), snake.getId());
+        }
     }
-}
\ No newline at end of file
+}
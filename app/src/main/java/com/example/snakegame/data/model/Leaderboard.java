@@ -0,0 +1,155 @@
+package com.example.snakegame.data.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 增量维护的排行榜：按分数从高到低排列的数组，分数相同时先加入的排在前面。
+ * 每条蛇对应一个复用的Player条目，只有在 {@link Snake#setScore(int)} 改变分数时
+ * 才通过相邻交换把条目移动到新位置，不再每帧重建列表和排序。
+ * 名次查询是O(1)，前K名是O(K)。
+ */
+public class Leaderboard {
+    private Player[] ranking = new Player[16];
+    private int size;
+    private int nextOrder;
+    private final List<Player> view = new RankingView();
+
+    // 加入一条蛇，已在榜上则忽略
+    public void add(Snake snake) {
+        if (snake == null || snake.leaderboard == this) return;
+        if (snake.leaderboard != null) {
+            snake.leaderboard.remove(snake);
+        }
+
+        Player entry = snake.rankEntry;
+        if (entry == null) {
+            entry = new Player();
+            snake.rankEntry = entry;
+        }
+        entry.setPlayerId(snake.getPlayerId());
+        entry.setNickname(snake.getNickname());
+        entry.setScore(snake.getScore());
+        entry.snake = snake;
+        entry.order = nextOrder++;
+
+        if (size == ranking.length) {
+            Player[] grown = new Player[size * 2];
+            System.arraycopy(ranking, 0, grown, 0, size);
+            ranking = grown;
+        }
+        ranking[size] = entry;
+        entry.rank = size;
+        size++;
+        snake.leaderboard = this;
+        moveUp(entry);
+    }
+
+    // 把一条蛇从榜上移除（例如死亡的Bot）
+    public void remove(Snake snake) {
+        if (snake == null || snake.leaderboard != this) return;
+        Player entry = snake.rankEntry;
+        int rank = entry.rank;
+        for (int i = rank + 1; i < size; i++) {
+            ranking[i - 1] = ranking[i];
+            ranking[i - 1].rank = i - 1;
+        }
+        ranking[--size] = null;
+        entry.rank = -1;
+        snake.leaderboard = null;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            ranking[i].rank = -1;
+            ranking[i].snake.leaderboard = null;
+            ranking[i] = null;
+        }
+        size = 0;
+        nextOrder = 0;
+    }
+
+    // 由Snake在分数变化时调用
+    void onScoreChanged(Snake snake) {
+        Player entry = snake.rankEntry;
+        int oldScore = entry.getScore();
+        entry.setScore(snake.getScore());
+        if (snake.getScore() > oldScore) {
+            moveUp(entry);
+        } else {
+            moveDown(entry);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // 第rank名（从0开始）
+    public Player get(int rank) {
+        return ranking[rank];
+    }
+
+    public Snake getSnake(int rank) {
+        return ranking[rank].snake;
+    }
+
+    // 蛇的名次（从0开始），不在榜上返回-1
+    public int getRank(Snake snake) {
+        return snake != null && snake.leaderboard == this ? snake.rankEntry.rank : -1;
+    }
+
+    // 把前k名复制到out中，返回实际复制的数量
+    public int getTop(int k, Player[] out) {
+        int count = Math.min(Math.min(k, size), out.length);
+        System.arraycopy(ranking, 0, out, 0, count);
+        return count;
+    }
+
+    // 只读的排名列表视图，不产生新的对象
+    public List<Player> asList() {
+        return view;
+    }
+
+    private void moveUp(Player entry) {
+        int rank = entry.rank;
+        while (rank > 0 && ranksBefore(entry, ranking[rank - 1])) {
+            ranking[rank] = ranking[rank - 1];
+            ranking[rank].rank = rank;
+            rank--;
+        }
+        ranking[rank] = entry;
+        entry.rank = rank;
+    }
+
+    private void moveDown(Player entry) {
+        int rank = entry.rank;
+        while (rank < size - 1 && ranksBefore(ranking[rank + 1], entry)) {
+            ranking[rank] = ranking[rank + 1];
+            ranking[rank].rank = rank;
+            rank++;
+        }
+        ranking[rank] = entry;
+        entry.rank = rank;
+    }
+
+    private static boolean ranksBefore(Player a, Player b) {
+        return a.getScore() > b.getScore() || (a.getScore() == b.getScore() && a.order < b.order);
+    }
+
+    private class RankingView extends AbstractList<Player> implements RandomAccess {
+        @Override
+        public Player get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            return ranking[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 世界地图的占用网格，记录每个格子上的蛇（蛇id）和食物（食物引用），所有查询都是O(1)，
+ * 由GameWorld在蛇头前进、蛇尾移除、食物增删时增量更新。
+ * 格子状态按区块（{@link WorldChunk}）存放：区块在有蛇或食物进入时才创建，清空后释放，
+ * 所以内存只与被占用的面积有关，与地图大小无关。
+ * 同时维护空闲格子集合（{@link FreeCellSet}）和食物的空间索引（{@link FoodIndex}）。
+ */
+public class OccupancyGrid {
+    public static final int EMPTY = 0;
+    // 格子上同时有多条不同的蛇（只有不参与碰撞的蛇互相穿过时才会出现）
+    public static final int SHARED = -1;
+    private static final int CHUNK_POOL_SIZE = 8;
+
+    private final int cols;
+    private final int rows;
+    private final int chunkCols;
+    private final int chunkRows;
+    private final WorldChunk[] chunks;  // 没有创建的区块为null，视为全部空闲
+    private int allocatedChunks;
+    // 释放的空区块留在池中复用，蛇在区块边界来回移动时不会反复分配
+    private final WorldChunk[] chunkPool = new WorldChunk[CHUNK_POOL_SIZE];
+    private int pooledChunks;
+    private final FreeCellSet freeCells;
+    private final FoodIndex foodIndex;
+
+    public OccupancyGrid(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.chunkCols = (cols + WorldChunk.CHUNK_SIZE - 1) >> WorldChunk.CHUNK_SHIFT;
+        this.chunkRows = (rows + WorldChunk.CHUNK_SIZE - 1) >> WorldChunk.CHUNK_SHIFT;
+        this.chunks = new WorldChunk[chunkCols * chunkRows];
+        this.freeCells = new FreeCellSet(this);
+        this.foodIndex = new FoodIndex(this);
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    // 当前已创建的区块数量
+    public int getAllocatedChunkCount() {
+        return allocatedChunks;
+    }
+
+    // 池中等待复用的空区块数量
+    public int getPooledChunkCount() {
+        return pooledChunks;
+    }
+
+    // 蛇身占据一个格子，地图外的坐标直接忽略
+    public void addSegment(int x, int y, int snakeId) {
+        if (!isInside(x, y)) return;
+        int chunkIndex = chunkIndex(x, y);
+        WorldChunk chunk = getOrCreateChunk(chunkIndex);
+        int cell = cellIndex(x, y);
+        if (chunk.segmentCount[cell] == 0) {
+            chunk.snakeOwner[cell] = snakeId;
+            if (chunk.foodRef[cell] == EMPTY) {
+                markOccupied(chunkIndex, chunk, cell);
+            }
+        } else if (chunk.snakeOwner[cell] != snakeId) {
+            chunk.snakeOwner[cell] = SHARED;
+        }
+        chunk.segmentCount[cell]++;
+    }
+
+    // 蛇身离开一个格子
+    public void removeSegment(int x, int y) {
+        if (!isInside(x, y)) return;
+        int chunkIndex = chunkIndex(x, y);
+        WorldChunk chunk = chunks[chunkIndex];
+        if (chunk == null) return;
+        int cell = cellIndex(x, y);
+        if (chunk.segmentCount[cell] > 0 && --chunk.segmentCount[cell] == 0) {
+            chunk.snakeOwner[cell] = EMPTY;
+            if (chunk.foodRef[cell] == EMPTY) {
+                markFree(chunkIndex, chunk, cell);
+                releaseIfEmpty(chunkIndex);
+            }
+        }
+    }
+
+    // 格子上的蛇：EMPTY、SHARED或蛇的id
+    public int snakeAt(int x, int y) {
+        WorldChunk chunk = chunkAt(x, y);
+        return chunk != null ? chunk.snakeOwner[cellIndex(x, y)] : EMPTY;
+    }
+
+    public boolean hasSnake(int x, int y) {
+        return snakeAt(x, y) != EMPTY;
+    }
+
+    // 格子上是否有除snakeId之外的蛇
+    public boolean hasOtherSnake(int x, int y, int snakeId) {
+        int owner = snakeAt(x, y);
+        return owner != EMPTY && owner != snakeId;
+    }
+
+    public void setFood(int x, int y, int ref) {
+        if (!isInside(x, y)) return;
+        int chunkIndex = chunkIndex(x, y);
+        WorldChunk chunk = ref == EMPTY ? chunks[chunkIndex] : getOrCreateChunk(chunkIndex);
+        if (chunk == null) return;
+        int cell = cellIndex(x, y);
+        chunk.foodRef[cell] = ref;
+        if (chunk.snakeOwner[cell] == EMPTY) {
+            if (ref == EMPTY) {
+                markFree(chunkIndex, chunk, cell);
+                releaseIfEmpty(chunkIndex);
+            } else {
+                markOccupied(chunkIndex, chunk, cell);
+            }
+        }
+    }
+
+    public void clearFood(int x, int y) {
+        setFood(x, y, EMPTY);
+    }
+
+    public int foodAt(int x, int y) {
+        WorldChunk chunk = chunkAt(x, y);
+        return chunk != null ? chunk.foodRef[cellIndex(x, y)] : EMPTY;
+    }
+
+    public FreeCellSet getFreeCells() {
+        return freeCells;
+    }
+
+    public FoodIndex getFoodIndex() {
+        return foodIndex;
+    }
+
+    // 格子是否不能放置新物体（有蛇、有食物或在地图外）
+    public boolean isOccupied(int x, int y) {
+        if (!isInside(x, y)) return true;
+        WorldChunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null) return false;
+        int cell = cellIndex(x, y);
+        return chunk.snakeOwner[cell] != EMPTY || chunk.foodRef[cell] != EMPTY;
+    }
+
+    // ---------------- 区块，供FreeCellSet和FoodIndex使用 ----------------
+
+    int getChunkCols() {
+        return chunkCols;
+    }
+
+    int getChunkRows() {
+        return chunkRows;
+    }
+
+    WorldChunk getChunk(int chunkIndex) {
+        return chunks[chunkIndex];
+    }
+
+    // 区块在地图内的宽度和高度
+    int chunkWidth(int chunkIndex) {
+        int originX = (chunkIndex % chunkCols) << WorldChunk.CHUNK_SHIFT;
+        return Math.min(WorldChunk.CHUNK_SIZE, cols - originX);
+    }
+
+    int chunkHeight(int chunkIndex) {
+        int originY = (chunkIndex / chunkCols) << WorldChunk.CHUNK_SHIFT;
+        return Math.min(WorldChunk.CHUNK_SIZE, rows - originY);
+    }
+
+    // 地图内的坐标所在的区块下标
+    int chunkIndex(int x, int y) {
+        return (y >> WorldChunk.CHUNK_SHIFT) * chunkCols + (x >> WorldChunk.CHUNK_SHIFT);
+    }
+
+    static int cellIndex(int x, int y) {
+        return ((y & (WorldChunk.CHUNK_SIZE - 1)) << WorldChunk.CHUNK_SHIFT) | (x & (WorldChunk.CHUNK_SIZE - 1));
+    }
+
+    WorldChunk getOrCreateChunk(int chunkIndex) {
+        WorldChunk chunk = chunks[chunkIndex];
+        if (chunk == null) {
+            chunk = takePooledChunk(chunkWidth(chunkIndex), chunkHeight(chunkIndex));
+            if (chunk == null) {
+                chunk = new WorldChunk(chunkWidth(chunkIndex), chunkHeight(chunkIndex));
+            }
+            chunks[chunkIndex] = chunk;
+            allocatedChunks++;
+        }
+        return chunk;
+    }
+
+    void releaseIfEmpty(int chunkIndex) {
+        WorldChunk chunk = chunks[chunkIndex];
+        if (chunk != null && chunk.isEmpty()) {
+            chunks[chunkIndex] = null;
+            allocatedChunks--;
+            // 空区块的状态与新建的相同，可以直接复用
+            if (pooledChunks < CHUNK_POOL_SIZE) {
+                chunkPool[pooledChunks++] = chunk;
+            }
+        }
+    }
+
+    private WorldChunk takePooledChunk(int width, int height) {
+        for (int i = 0; i < pooledChunks; i++) {
+            WorldChunk chunk = chunkPool[i];
+            if (chunk.width == width && chunk.height == height) {
+                chunkPool[i] = chunkPool[--pooledChunks];
+                chunkPool[pooledChunks] = null;
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    private WorldChunk chunkAt(int x, int y) {
+        return isInside(x, y) ? chunks[chunkIndex(x, y)] : null;
+    }
+
+    private void markFree(int chunkIndex, WorldChunk chunk, int cell) {
+        if (chunk.markFree(cell)) {
+            freeCells.onFreeCountChanged(chunkIndex, 1);
+        }
+    }
+
+    private void markOccupied(int chunkIndex, WorldChunk chunk, int cell) {
+        if (chunk.markOccupied(cell)) {
+            freeCells.onFreeCountChanged(chunkIndex, -1);
+        }
+    }
+}
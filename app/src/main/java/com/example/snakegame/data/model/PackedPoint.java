@@ -0,0 +1,31 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 把二维坐标压缩成一个int（高16位x，低16位y），用于热路径上代替Point对象，避免频繁分配。
+ * x和y的取值范围都是 [-32768, 32767]，足以覆盖世界地图以及地图外一格的越界坐标。
+ */
+public final class PackedPoint {
+
+    private PackedPoint() {
+    }
+
+    public static int pack(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    public static int x(int packed) {
+        return packed >> 16;
+    }
+
+    public static int y(int packed) {
+        return (short) packed;
+    }
+
+    public static int pack(Point point) {
+        return pack(point.getX(), point.getY());
+    }
+
+    public static Point toPoint(int packed) {
+        return new Point(x(packed), y(packed));
+    }
+}
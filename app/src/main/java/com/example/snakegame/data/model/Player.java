@@ -5,6 +5,11 @@ public class Player {
     private String nickname;
     private int score;
     
+    // 以下字段由Leaderboard维护
+    Snake snake;
+    int rank = -1;
+    int order;
+    
     public Player() {
         this.score = 0;
     }
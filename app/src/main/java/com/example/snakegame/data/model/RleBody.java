@@ -0,0 +1,275 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 游程编码的蛇身：蛇头坐标加上从蛇头往蛇尾方向的若干段（方向，步数）。
+ * 第i段表示连续的若干步，每一步从靠近蛇头的一节走到下一节，方向是那一段蛇移动的方向的反方向，
+ * 所以只记录蛇移动的方向即可。长度为1的蛇没有段，长度为 1 + 所有段的步数之和。
+ * 蛇头前进和蛇尾移除都是O(1)，拐弯很少的长蛇只占很少的内存。
+ *
+ * {@link #encode()} 得到的字节数组用作网络和回放格式：蛇头X、蛇头Y，
+ * 之后每段一个方向编码（{@link Direction#getCode()}）加一个步数，坐标和步数都是变长整数（每字节7位），
+ * 坐标先做zigzag变换以支持负数。
+ * 只能表示每节都与上一节相邻的蛇身，不相邻时 {@link #isValid()} 返回false。
+ */
+public final class RleBody {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private int headX;
+    private int headY;
+    private int tailX;
+    private int tailY;
+    private int length;
+    private boolean valid = true;
+
+    // 环形缓冲区，第i段（0为蛇头所在的段）位于 [(first + i) & (capacity - 1)]
+    private byte[] runDirections = new byte[8];
+    private int[] runLengths = new int[8];
+    private int first;
+    private int runCount;
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getHeadX() {
+        return headX;
+    }
+
+    public int getHeadY() {
+        return headY;
+    }
+
+    public int getTailX() {
+        return tailX;
+    }
+
+    public int getTailY() {
+        return tailY;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    // 第i段（0为靠近蛇头的段）蛇移动的方向
+    public Direction getRunDirection(int index) {
+        return Direction.fromCode(runDirections[slot(index)]);
+    }
+
+    public int getRunLength(int index) {
+        return runLengths[slot(index)];
+    }
+
+    // 清空蛇身
+    public void clear() {
+        length = 0;
+        first = 0;
+        runCount = 0;
+        valid = true;
+    }
+
+    /**
+     * 在蛇头前添加一节，必须与当前蛇头相邻，否则蛇身变为无效
+     */
+    public void pushHead(int x, int y) {
+        if (length == 0) {
+            headX = x;
+            headY = y;
+            tailX = x;
+            tailY = y;
+            length = 1;
+            return;
+        }
+        int code = stepCode(x - headX, y - headY);
+        if (code < 0) {
+            valid = false;
+        } else if (runCount > 0 && runDirections[first] == code) {
+            runLengths[first]++;
+        } else {
+            if (runCount == runLengths.length) {
+                growRuns();
+            }
+            first = (first - 1) & (runLengths.length - 1);
+            runDirections[first] = (byte) code;
+            runLengths[first] = 1;
+            runCount++;
+        }
+        headX = x;
+        headY = y;
+        length++;
+    }
+
+    // 移除蛇尾一节
+    public void popTail() {
+        if (length == 0) return;
+        length--;
+        if (runCount == 0) return;
+        int last = slot(runCount - 1);
+        Direction direction = Direction.fromCode(runDirections[last]);
+        tailX += direction.getDx();
+        tailY += direction.getDy();
+        if (--runLengths[last] == 0) {
+            runCount--;
+        }
+    }
+
+    /**
+     * 依次写出每一节的压缩坐标（蛇头在前），out至少要有getLength()个位置
+     */
+    public void toPackedPoints(int[] out) {
+        if (length == 0) return;
+        int x = headX;
+        int y = headY;
+        int count = 0;
+        out[count++] = PackedPoint.pack(x, y);
+        for (int r = 0; r < runCount; r++) {
+            Direction direction = Direction.fromCode(runDirections[slot(r)]);
+            int steps = runLengths[slot(r)];
+            for (int i = 0; i < steps; i++) {
+                x -= direction.getDx();
+                y -= direction.getDy();
+                out[count++] = PackedPoint.pack(x, y);
+            }
+        }
+    }
+
+    /**
+     * 编码为网络和回放使用的字节数组，蛇身无效时返回null
+     */
+    public byte[] encode() {
+        if (!valid) return null;
+        int size = 0;
+        if (length > 0) {
+            size = varIntSize(zigzag(headX)) + varIntSize(zigzag(headY));
+            for (int r = 0; r < runCount; r++) {
+                size += 1 + varIntSize(runLengths[slot(r)]);
+            }
+        }
+        byte[] bytes = new byte[size];
+        if (length > 0) {
+            int position = writeVarInt(bytes, 0, zigzag(headX));
+            position = writeVarInt(bytes, position, zigzag(headY));
+            for (int r = 0; r < runCount; r++) {
+                bytes[position++] = runDirections[slot(r)];
+                position = writeVarInt(bytes, position, runLengths[slot(r)]);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 解析 {@link #encode()} 的结果，格式错误时返回null
+     */
+    public static RleBody decode(byte[] bytes) {
+        if (bytes == null) return null;
+        RleBody body = new RleBody();
+        if (bytes.length == 0) return body;
+
+        int[] cursor = {0};
+        int zigzagX = readVarInt(bytes, cursor);
+        int zigzagY = readVarInt(bytes, cursor);
+        if (zigzagX < 0 || zigzagY < 0) return null;
+        int headX = unzigzag(zigzagX);
+        int headY = unzigzag(zigzagY);
+        // 从蛇头往蛇尾读，先走到蛇尾，再从蛇尾按相反顺序推进到蛇头
+        int runStart = cursor[0];
+        int tailX = headX;
+        int tailY = headY;
+        int runs = 0;
+        while (cursor[0] < bytes.length) {
+            Direction direction = Direction.fromCode(bytes[cursor[0]++]);
+            int steps = readVarInt(bytes, cursor);
+            if (direction == null || steps <= 0) return null;
+            tailX -= direction.getDx() * steps;
+            tailY -= direction.getDy() * steps;
+            runs++;
+        }
+
+        byte[] directions = new byte[runs];
+        int[] lengths = new int[runs];
+        cursor[0] = runStart;
+        for (int r = 0; r < runs; r++) {
+            directions[r] = bytes[cursor[0]++];
+            lengths[r] = readVarInt(bytes, cursor);
+        }
+        body.pushHead(tailX, tailY);
+        for (int r = runs - 1; r >= 0; r--) {
+            Direction direction = Direction.fromCode(directions[r]);
+            for (int i = 0; i < lengths[r]; i++) {
+                body.pushHead(body.headX + direction.getDx(), body.headY + direction.getDy());
+            }
+        }
+        return body;
+    }
+
+    private int slot(int index) {
+        return (first + index) & (runLengths.length - 1);
+    }
+
+    // 相邻一步对应的方向编码，不是相邻的一步返回-1
+    private static int stepCode(int dx, int dy) {
+        for (Direction direction : DIRECTIONS) {
+            if (direction.getDx() == dx && direction.getDy() == dy) {
+                return direction.getCode();
+            }
+        }
+        return -1;
+    }
+
+    // 扩容时把环形缓冲区展开到新数组的开头
+    private void growRuns() {
+        int capacity = runLengths.length * 2;
+        byte[] grownDirections = new byte[capacity];
+        int[] grownLengths = new int[capacity];
+        for (int r = 0; r < runCount; r++) {
+            grownDirections[r] = runDirections[slot(r)];
+            grownLengths[r] = runLengths[slot(r)];
+        }
+        runDirections = grownDirections;
+        runLengths = grownLengths;
+        first = 0;
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    static int writeVarInt(byte[] bytes, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    // 读取一个变长整数，数据不完整时返回-1
+    static int readVarInt(byte[] bytes, int[] cursor) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (cursor[0] >= bytes.length) return -1;
+            byte b = bytes[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 一条蛇的蛇身按空间分成的若干段（run）。每段是从蛇头往蛇尾方向连续的若干节，
+ * 记录节数和包围盒，包围盒的宽高都不超过 RUN_EXTENT，所以每段大约至少有 RUN_EXTENT 节
+ * （最靠近蛇头和蛇尾的两段除外），段数最多约为 长度 / RUN_EXTENT。
+ * 查询视野内的蛇身时只需要检查每段的包围盒，再遍历与视野相交的段，
+ * 很长的蛇不会让每帧的工作量随长度线性增长。
+ * 蛇头添加和蛇尾移除都是O(1)；蛇尾移除后不收缩包围盒（只会偏大，不影响正确性）。
+ */
+final class SegmentRuns {
+    static final int RUN_EXTENT = 32;
+
+    private static final int RUN_INTS = 5;
+    private static final int LENGTH = 0;
+    private static final int MIN_X = 1;
+    private static final int MIN_Y = 2;
+    private static final int MAX_X = 3;
+    private static final int MAX_Y = 4;
+
+    // 环形缓冲区，第i段（0为蛇头所在的段）位于 runs[((head + i) & (capacity - 1)) * RUN_INTS]
+    private int[] runs = new int[4 * RUN_INTS];
+    private int capacity = 4;
+    private int head;
+    private int count;
+
+    void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    int getRunCount() {
+        return count;
+    }
+
+    // 第i段的节数
+    int getRunLength(int index) {
+        return runs[offset(index) + LENGTH];
+    }
+
+    // 第i段的包围盒是否与矩形 [left, right) x [top, bottom) 相交
+    boolean intersects(int index, int left, int top, int right, int bottom) {
+        int base = offset(index);
+        return runs[base + MIN_X] < right && runs[base + MAX_X] >= left
+                && runs[base + MIN_Y] < bottom && runs[base + MAX_Y] >= top;
+    }
+
+    // 蛇头前添加一节
+    void pushHead(int x, int y) {
+        if (count > 0) {
+            int base = head * RUN_INTS;
+            int minX = Math.min(runs[base + MIN_X], x);
+            int minY = Math.min(runs[base + MIN_Y], y);
+            int maxX = Math.max(runs[base + MAX_X], x);
+            int maxY = Math.max(runs[base + MAX_Y], y);
+            if (maxX - minX < RUN_EXTENT && maxY - minY < RUN_EXTENT) {
+                runs[base + LENGTH]++;
+                runs[base + MIN_X] = minX;
+                runs[base + MIN_Y] = minY;
+                runs[base + MAX_X] = maxX;
+                runs[base + MAX_Y] = maxY;
+                return;
+            }
+        }
+        if (count == capacity) {
+            grow();
+        }
+        head = (head - 1) & (capacity - 1);
+        count++;
+        int base = head * RUN_INTS;
+        runs[base + LENGTH] = 1;
+        runs[base + MIN_X] = x;
+        runs[base + MIN_Y] = y;
+        runs[base + MAX_X] = x;
+        runs[base + MAX_Y] = y;
+    }
+
+    // 移除蛇尾一节
+    void popTail() {
+        if (count == 0) return;
+        int base = offset(count - 1);
+        if (--runs[base + LENGTH] == 0) {
+            count--;
+        }
+    }
+
+    private int offset(int index) {
+        return ((head + index) & (capacity - 1)) * RUN_INTS;
+    }
+
+    // 扩容时把环形缓冲区展开到新数组的开头
+    private void grow() {
+        int[] grown = new int[capacity * 2 * RUN_INTS];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(runs, offset(i), grown, i * RUN_INTS, RUN_INTS);
+        }
+        runs = grown;
+        capacity *= 2;
+        head = 0;
+    }
+}
@@ -1,133 +1,258 @@
 // filepath: d:\SnakeGame\app\src\main\java\com\example\snakegame\data\model\Snake.java
 package com.example.snakegame.data.model;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
+/**
+ * 一条蛇。数据保存在 {@link SnakeTable} 的某一行中，这个类只是那一行的视图：
+ * 加入GameWorld之前使用自己的单行表，加入后搬到世界的表中。
+ */
 public class Snake {
-    private String playerId;
-    private String nickname;
-    private String color;
-    private int score;
-    private boolean alive;
-    private List<Point> bodyPoints;
-    private String direction;
-    private boolean growing; // 添加这个字段
-    private int growthPending = 0; // 待增长的节数
-        // 在Snake类中添加这个字段和方法
-    private boolean justAte = false;
+    // 所在的表和行，由SnakeTable维护
+    SnakeTable table;
+    int row;
+    // 所在的排行榜和对应的条目，由Leaderboard维护
+    Leaderboard leaderboard;
+    Player rankEntry;
+    private final List<Point> bodyView = new BodyView();
     
     public boolean isJustAte() {
-        return justAte;
+        return table.justAte[row];
     }
     
     public void setJustAte(boolean justAte) {
-        this.justAte = justAte;
+        table.justAte[row] = justAte;
     }
     
     public Snake() {
-        this.alive = true;
-        this.score = 0;
-        this.growing = false;
+        this.table = new SnakeTable(1);
+        this.row = table.addRow(this);
     }
     
     // Getters and Setters
+    // GameWorld分配的数字id，用于占用网格
+    public int getId() {
+        return table.ids[row];
+    }
+    
+    public void setId(int id) {
+        table.ids[row] = id;
+    }
+    
     public String getPlayerId() {
-        return playerId;
+        return table.playerIds[row];
     }
     
     public void setPlayerId(String playerId) {
-        this.playerId = playerId;
+        table.playerIds[row] = playerId;
+        if (rankEntry != null) {
+            rankEntry.setPlayerId(playerId);
+        }
     }
     
     public String getNickname() {
-        return nickname;
+        return table.nicknames[row];
     }
     
     public void setNickname(String nickname) {
-        this.nickname = nickname;
+        table.nicknames[row] = nickname;
+        if (rankEntry != null) {
+            rankEntry.setNickname(nickname);
+        }
     }
     
     public String getColor() {
-        return color;
+        return table.colors[row];
     }
     
+    // 设置颜色时解析一次，格式错误时使用默认颜色
     public void setColor(String color) {
-        this.color = color;
+        table.colors[row] = color;
+        table.argbColors[row] = ArgbColor.parse(color);
+    }
+    
+    public int getArgbColor() {
+        return table.argbColors[row];
     }
     
     public int getScore() {
-        return score;
+        return table.scores[row];
     }
     
     public void setScore(int score) {
-        this.score = score;
+        if (table.scores[row] == score) return;
+        table.scores[row] = score;
+        if (leaderboard != null) {
+            leaderboard.onScoreChanged(this);
+        }
     }
     
     public boolean isAlive() {
-        return alive;
+        return table.alive[row];
     }
     
     public void setAlive(boolean alive) {
-        this.alive = alive;
+        table.alive[row] = alive;
+    }
+    
+    // 所在的表和行，用于按列遍历
+    public SnakeTable getTable() {
+        return table;
+    }
+    
+    public int getRow() {
+        return row;
     }
     
+    // 只读的蛇身视图，供渲染和网络代码遍历（每次get都会创建新的Point）
     public List<Point> getBodyPoints() {
-        return bodyPoints;
+        return bodyView;
     }
     
+    // 用给定的点列表（蛇头在前）重置蛇身
     public void setBodyPoints(List<Point> bodyPoints) {
-        this.bodyPoints = bodyPoints;
+        int count = bodyPoints == null ? 0 : bodyPoints.size();
+        int[] packed = new int[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = PackedPoint.pack(bodyPoints.get(i));
+        }
+        table.setBody(row, packed, count);
+    }
+    
+    // 游程编码的蛇身（蛇头加若干段方向和步数），随蛇身同步更新，用于网络和回放，只读
+    public RleBody getRleBody() {
+        return table.rleBodies[row];
+    }
+    
+    // 用游程编码的蛇身重置蛇身（例如收到网络消息或回放时）
+    public void setRleBody(RleBody rleBody) {
+        int count = rleBody == null ? 0 : rleBody.getLength();
+        int[] packed = new int[count];
+        if (count > 0) {
+            rleBody.toPackedPoints(packed);
+        }
+        table.setBody(row, packed, count);
+    }
+    
+    public int getLength() {
+        return table.lengths[row];
     }
     
-    public String getDirection() {
-        return direction;
+    // 第i节（0为蛇头）的压缩坐标
+    public int getSegment(int index) {
+        return table.getSegment(row, index);
     }
     
-    public void setDirection(String direction) {
-        this.direction = direction;
+    public int getSegmentX(int index) {
+        return PackedPoint.x(getSegment(index));
+    }
+    
+    public int getSegmentY(int index) {
+        return PackedPoint.y(getSegment(index));
+    }
+    
+    public int getHeadX() {
+        return PackedPoint.x(table.heads[row]);
+    }
+    
+    public int getHeadY() {
+        return PackedPoint.y(table.heads[row]);
+    }
+    
+    public int getTailX() {
+        return getSegmentX(getLength() - 1);
+    }
+    
+    public int getTailY() {
+        return getSegmentY(getLength() - 1);
+    }
+    
+    // 在蛇头前添加一节，O(1)（容量不足时才扩容）
+    public void pushHead(int x, int y) {
+        table.pushHead(row, PackedPoint.pack(x, y));
+    }
+    
+    // 移除蛇尾一节，O(1)
+    public void popTail() {
+        table.popTail(row);
+    }
+    
+    public Direction getDirection() {
+        return Direction.fromCode(table.directions[row]);
+    }
+    
+    public void setDirection(Direction direction) {
+        table.directions[row] = direction != null ? direction.getCode() : -1;
     }
     
     public boolean isGrowing() {
-        return growing || growthPending > 0;
+        return table.growing[row] || table.growthPending[row] > 0;
     }
     
     public void setGrowing(boolean growing) {
-        this.growing = growing;
+        table.growing[row] = growing;
     }
     
     public int getGrowthPending() {
-        return growthPending;
+        return table.growthPending[row];
     }
     
     public void decreaseGrowthPending() {
-        if (growthPending > 0) {
-            growthPending--;
+        if (table.growthPending[row] > 0) {
+            table.growthPending[row]--;
         }
     }
     
     // 获取蛇头位置
     public Point getHead() {
-        if (bodyPoints != null && !bodyPoints.isEmpty()) {
-            return bodyPoints.get(0);
+        if (getLength() > 0) {
+            return new Point(getHeadX(), getHeadY());
         }
         return null;
     }
     
     // 蛇生长（吃到食物时调用）
     public void grow() {
-        this.growthPending++;
+        table.growthPending[row]++;
     }
     
-    // 蛇身体减少（吃到坏食物时调用）
-    public void shrink() {
-        if (bodyPoints != null && bodyPoints.size() > 1) {
-            // 移除尾部节点，但至少保留蛇头
-            bodyPoints.remove(bodyPoints.size() - 1);
+    // 获取蛇尾位置
+    public Point getTail() {
+        if (getLength() > 0) {
+            return new Point(getTailX(), getTailY());
         }
+        return null;
+    }
+    
+    // 蛇身体减少（吃到坏食物时调用），移除尾部节点但至少保留蛇头
+    public boolean shrink() {
+        if (getLength() > 1) {
+            popTail();
+            return true;
+        }
+        return false;
     }
     
     // 蛇身体增长指定数量
     public void growByAmount(int amount) {
-        this.growthPending += amount;
+        table.growthPending[row] += amount;
+    }
+    
+    private class BodyView extends AbstractList<Point> implements RandomAccess {
+        @Override
+        public Point get(int index) {
+            int length = getLength();
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+            }
+            return PackedPoint.toPoint(getSegment(index));
+        }
+        
+        @Override
+        public int size() {
+            return getLength();
+        }
     }
-}
\ No newline at end of file
+}
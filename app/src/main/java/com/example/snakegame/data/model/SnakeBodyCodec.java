@@ -0,0 +1,78 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 蛇身的网络和回放格式。第一个字节是格式：
+ * {@link #FORMAT_RLE} 之后是 {@link RleBody#encode()} 的结果，每节都与上一节相邻的蛇身都用这种格式；
+ * 不能游程编码的蛇身（有不相邻的两节）退回 {@link #FORMAT_POINTS}：节数，之后每节的X、Y（蛇头在前），
+ * 都是zigzag变换后的变长整数。解码结果统一为压缩坐标数组，两种格式对接收方没有区别。
+ */
+public final class SnakeBodyCodec {
+    public static final byte FORMAT_RLE = 0;
+    public static final byte FORMAT_POINTS = 1;
+
+    private SnakeBodyCodec() {
+    }
+
+    /**
+     * 编码蛇身，优先使用游程编码
+     */
+    public static byte[] encode(Snake snake) {
+        RleBody rleBody = snake.getRleBody();
+        byte[] rle = rleBody.isValid() && rleBody.getLength() == snake.getLength() ? rleBody.encode() : null;
+        if (rle != null) {
+            byte[] bytes = new byte[rle.length + 1];
+            bytes[0] = FORMAT_RLE;
+            System.arraycopy(rle, 0, bytes, 1, rle.length);
+            return bytes;
+        }
+        return encodePoints(snake);
+    }
+
+    // 逐节编码，任何蛇身都可以表示
+    static byte[] encodePoints(Snake snake) {
+        int length = snake.getLength();
+        int size = 1 + RleBody.varIntSize(length);
+        for (int i = 0; i < length; i++) {
+            size += RleBody.varIntSize(RleBody.zigzag(snake.getSegmentX(i)))
+                    + RleBody.varIntSize(RleBody.zigzag(snake.getSegmentY(i)));
+        }
+        byte[] bytes = new byte[size];
+        bytes[0] = FORMAT_POINTS;
+        int position = RleBody.writeVarInt(bytes, 1, length);
+        for (int i = 0; i < length; i++) {
+            position = RleBody.writeVarInt(bytes, position, RleBody.zigzag(snake.getSegmentX(i)));
+            position = RleBody.writeVarInt(bytes, position, RleBody.zigzag(snake.getSegmentY(i)));
+        }
+        return bytes;
+    }
+
+    /**
+     * 解码为每节的压缩坐标（蛇头在前），格式错误时返回null
+     */
+    public static int[] decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        if (bytes[0] == FORMAT_RLE) {
+            byte[] rle = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, rle, 0, rle.length);
+            RleBody body = RleBody.decode(rle);
+            if (body == null) return null;
+            int[] points = new int[body.getLength()];
+            body.toPackedPoints(points);
+            return points;
+        }
+        if (bytes[0] != FORMAT_POINTS) return null;
+
+        int[] cursor = {1};
+        int length = RleBody.readVarInt(bytes, cursor);
+        // 每节至少两个字节，用来排除错误的节数
+        if (length < 0 || length > (bytes.length - cursor[0]) / 2) return null;
+        int[] points = new int[length];
+        for (int i = 0; i < length; i++) {
+            int x = RleBody.readVarInt(bytes, cursor);
+            int y = RleBody.readVarInt(bytes, cursor);
+            if (x < 0 || y < 0) return null;
+            points[i] = PackedPoint.pack(RleBody.unzigzag(x), RleBody.unzigzag(y));
+        }
+        return cursor[0] == bytes.length ? points : null;
+    }
+}
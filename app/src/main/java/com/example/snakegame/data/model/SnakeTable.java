@@ -0,0 +1,398 @@
+package com.example.snakegame.data.model;
+
+/**
+ * 按列存放的蛇数据：每条蛇占一行，id、蛇头、长度、分数、存活标志、颜色等各自是一个平行数组，
+ * 所有蛇身共用一个压缩坐标数组（arena）。逐条遍历大量蛇时只顺序读取需要的几列，
+ * 不需要在堆上跳转。{@link Snake} 只是指向某一行的视图，现有代码仍然通过它读写。
+ *
+ * 每条蛇在arena中占一段容量为2的幂的环形区域，第i节（0为蛇头）位于
+ * arena[segmentStart + ((ringHead + i) & (capacity - 1))]。容量不足时在arena末尾分配新的区域，
+ * 旧区域作废；arena放不下时整理成连续的一段再扩容。
+ * 每行另外用 {@link SegmentRuns} 把蛇身分段记录包围盒，用于只遍历某个矩形内的蛇身；
+ * 并同步维护一份游程编码的蛇身（{@link RleBody}），用于网络和回放。
+ */
+public final class SnakeTable {
+
+    /**
+     * 遍历蛇身时的回调，参数是压缩坐标
+     */
+    public interface SegmentVisitor {
+        void visit(int segment);
+    }
+
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    // 行对应的视图，空闲行为null
+    private Snake[] owners;
+    private int rowCount;          // 使用过的最大行数
+    private int[] freeRows;
+    private int freeRowCount;
+
+    // 列
+    int[] ids;
+    String[] playerIds;
+    String[] nicknames;
+    String[] colors;               // 颜色字符串，只用于网络和保存
+    int[] argbColors;              // 设置颜色时解析好的ARGB，绘制使用
+    int[] scores;
+    boolean[] alive;
+    byte[] directions;
+    boolean[] growing;
+    int[] growthPending;
+    boolean[] justAte;
+    int[] lengths;
+    int[] heads;                   // 蛇头的压缩坐标，长度为0时无意义
+
+    // 蛇身
+    private int[] segmentStart;
+    private int[] segmentCapacity;
+    private int[] ringHead;
+    SegmentRuns[] runs;
+    RleBody[] rleBodies;
+    private int[] arena;
+    private int arenaTop;          // arena中已分配的末尾
+
+    public SnakeTable() {
+        this(8);
+    }
+
+    SnakeTable(int rows) {
+        owners = new Snake[rows];
+        freeRows = new int[rows];
+        ids = new int[rows];
+        playerIds = new String[rows];
+        nicknames = new String[rows];
+        colors = new String[rows];
+        argbColors = new int[rows];
+        scores = new int[rows];
+        alive = new boolean[rows];
+        directions = new byte[rows];
+        growing = new boolean[rows];
+        growthPending = new int[rows];
+        justAte = new boolean[rows];
+        lengths = new int[rows];
+        heads = new int[rows];
+        segmentStart = new int[rows];
+        segmentCapacity = new int[rows];
+        ringHead = new int[rows];
+        runs = new SegmentRuns[rows];
+        rleBodies = new RleBody[rows];
+        arena = new int[rows * INITIAL_SEGMENT_CAPACITY];
+    }
+
+    // 使用过的行数，遍历时需要跳过空闲行（getSnake返回null）
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public Snake getSnake(int row) {
+        return owners[row];
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getHead(int row) {
+        return heads[row];
+    }
+
+    public int getLength(int row) {
+        return lengths[row];
+    }
+
+    public int getScore(int row) {
+        return scores[row];
+    }
+
+    public boolean isAlive(int row) {
+        return alive[row];
+    }
+
+    public String getColor(int row) {
+        return colors[row];
+    }
+
+    public int getArgbColor(int row) {
+        return argbColors[row];
+    }
+
+    public Direction getDirection(int row) {
+        return Direction.fromCode(directions[row]);
+    }
+
+    // 游程编码的蛇身，与蛇身同步更新，只读
+    public RleBody getRleBody(int row) {
+        return rleBodies[row];
+    }
+
+    // 第i节（0为蛇头）的压缩坐标
+    public int getSegment(int row, int index) {
+        return arena[segmentStart[row] + ((ringHead[row] + index) & (segmentCapacity[row] - 1))];
+    }
+
+    /**
+     * 遍历第row行在矩形 [left, right) x [top, bottom) 内的蛇身（不含蛇头）。
+     * 只检查包围盒与矩形相交的段，工作量取决于段数和矩形附近的蛇身，而不是蛇的总长度
+     */
+    public void forEachBodySegmentInRect(int row, int left, int top, int right, int bottom,
+                                         SegmentVisitor visitor) {
+        SegmentRuns rowRuns = runs[row];
+        int runCount = rowRuns.getRunCount();
+        int start = 0;
+        for (int r = 0; r < runCount; r++) {
+            int runLength = rowRuns.getRunLength(r);
+            if (rowRuns.intersects(r, left, top, right, bottom)) {
+                for (int i = Math.max(start, 1); i < start + runLength; i++) {
+                    int segment = getSegment(row, i);
+                    int x = PackedPoint.x(segment);
+                    int y = PackedPoint.y(segment);
+                    if (x >= left && x < right && y >= top && y < bottom) {
+                        visitor.visit(segment);
+                    }
+                }
+            }
+            start += runLength;
+        }
+    }
+
+    // ---------------- 行的分配 ----------------
+
+    // 为新建的蛇分配一行，使用默认值
+    int addRow(Snake snake) {
+        int row = allocateRow(snake);
+        alive[row] = true;
+        directions[row] = Direction.UP.getCode();
+        allocateSegments(row, INITIAL_SEGMENT_CAPACITY);
+        return row;
+    }
+
+    /**
+     * 把蛇移到这张表中（复制它当前所在行的全部数据），之后Snake视图读写这张表
+     */
+    void attach(Snake snake) {
+        SnakeTable source = snake.table;
+        if (source == this) return;
+        int sourceRow = snake.row;
+
+        int row = allocateRow(snake);
+        ids[row] = source.ids[sourceRow];
+        playerIds[row] = source.playerIds[sourceRow];
+        nicknames[row] = source.nicknames[sourceRow];
+        colors[row] = source.colors[sourceRow];
+        argbColors[row] = source.argbColors[sourceRow];
+        scores[row] = source.scores[sourceRow];
+        alive[row] = source.alive[sourceRow];
+        directions[row] = source.directions[sourceRow];
+        growing[row] = source.growing[sourceRow];
+        growthPending[row] = source.growthPending[sourceRow];
+        justAte[row] = source.justAte[sourceRow];
+        heads[row] = source.heads[sourceRow];
+
+        int length = source.lengths[sourceRow];
+        allocateSegments(row, capacityFor(length));
+        for (int i = 0; i < length; i++) {
+            arena[segmentStart[row] + i] = source.getSegment(sourceRow, i);
+        }
+        lengths[row] = length;
+        rebuildRuns(row);
+
+        source.releaseRow(sourceRow);
+        snake.table = this;
+        snake.row = row;
+    }
+
+    /**
+     * 把蛇从这张表中移出，放到它自己的单行表中，释放这一行
+     */
+    void detach(Snake snake) {
+        if (snake.table != this) return;
+        new SnakeTable(1).attach(snake);
+    }
+
+    private int allocateRow(Snake snake) {
+        int row;
+        if (freeRowCount > 0) {
+            row = freeRows[--freeRowCount];
+        } else {
+            if (rowCount == owners.length) {
+                growRows(rowCount * 2);
+            }
+            row = rowCount++;
+        }
+        owners[row] = snake;
+        if (runs[row] == null) {
+            runs[row] = new SegmentRuns();
+            rleBodies[row] = new RleBody();
+        } else {
+            runs[row].clear();
+            rleBodies[row].clear();
+        }
+        return row;
+    }
+
+    private void releaseRow(int row) {
+        owners[row] = null;
+        playerIds[row] = null;
+        nicknames[row] = null;
+        colors[row] = null;
+        lengths[row] = 0;
+        segmentCapacity[row] = 0;
+        freeRows[freeRowCount++] = row;
+    }
+
+    // ---------------- 蛇身 ----------------
+
+    void setBody(int row, int[] packedPoints, int count) {
+        if (segmentCapacity[row] < count) {
+            allocateSegments(row, capacityFor(count));
+        }
+        System.arraycopy(packedPoints, 0, arena, segmentStart[row], count);
+        ringHead[row] = 0;
+        lengths[row] = count;
+        heads[row] = count > 0 ? packedPoints[0] : 0;
+        rebuildRuns(row);
+    }
+
+    // 在蛇头前添加一节，O(1)（容量不足时才重新分配区域）
+    void pushHead(int row, int packed) {
+        int length = lengths[row];
+        if (length == segmentCapacity[row]) {
+            growSegments(row, segmentCapacity[row] * 2);
+        }
+        int head = (ringHead[row] - 1) & (segmentCapacity[row] - 1);
+        ringHead[row] = head;
+        arena[segmentStart[row] + head] = packed;
+        lengths[row] = length + 1;
+        heads[row] = packed;
+        runs[row].pushHead(PackedPoint.x(packed), PackedPoint.y(packed));
+        rleBodies[row].pushHead(PackedPoint.x(packed), PackedPoint.y(packed));
+    }
+
+    // 移除蛇尾一节，O(1)
+    void popTail(int row) {
+        if (lengths[row] > 0) {
+            lengths[row]--;
+            runs[row].popTail();
+            rleBodies[row].popTail();
+        }
+    }
+
+    // 按蛇尾到蛇头的顺序重新分段和编码
+    private void rebuildRuns(int row) {
+        SegmentRuns rowRuns = runs[row];
+        RleBody rleBody = rleBodies[row];
+        rowRuns.clear();
+        rleBody.clear();
+        for (int i = lengths[row] - 1; i >= 0; i--) {
+            int segment = getSegment(row, i);
+            rowRuns.pushHead(PackedPoint.x(segment), PackedPoint.y(segment));
+            rleBody.pushHead(PackedPoint.x(segment), PackedPoint.y(segment));
+        }
+    }
+
+    private static int capacityFor(int length) {
+        int capacity = INITIAL_SEGMENT_CAPACITY;
+        while (capacity < length) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // 把一行的蛇身搬到容量更大的新区域，同时展开环形缓冲区。
+    // 整理arena时不会复制这一行，旧数据仍留在原来的数组里
+    private void growSegments(int row, int capacity) {
+        int[] oldArena = arena;
+        int oldStart = segmentStart[row];
+        int oldMask = segmentCapacity[row] - 1;
+        int oldHead = ringHead[row];
+        int length = lengths[row];
+
+        allocateSegments(row, capacity);
+        int start = segmentStart[row];
+        for (int i = 0; i < length; i++) {
+            arena[start + i] = oldArena[oldStart + ((oldHead + i) & oldMask)];
+        }
+    }
+
+    // 在arena末尾为一行分配指定容量的区域，不复制数据
+    private void allocateSegments(int row, int capacity) {
+        if (arenaTop + capacity > arena.length) {
+            compact(row, capacity);
+        }
+        segmentStart[row] = arenaTop;
+        segmentCapacity[row] = capacity;
+        ringHead[row] = 0;
+        arenaTop += capacity;
+    }
+
+    // 把其他行的蛇身整理到新数组的开头，为row留出capacity的空间
+    private void compact(int row, int capacity) {
+        int used = 0;
+        for (int r = 0; r < rowCount; r++) {
+            if (r != row && owners[r] != null) {
+                used += segmentCapacity[r];
+            }
+        }
+        int size = arena.length;
+        while (size < (used + capacity) * 2) {
+            size <<= 1;
+        }
+
+        int[] compacted = new int[size];
+        int top = 0;
+        for (int r = 0; r < rowCount; r++) {
+            if (r == row || owners[r] == null) continue;
+            System.arraycopy(arena, segmentStart[r], compacted, top, segmentCapacity[r]);
+            segmentStart[r] = top;
+            top += segmentCapacity[r];
+        }
+        arena = compacted;
+        arenaTop = top;
+    }
+
+    private void growRows(int rows) {
+        owners = copyOf(owners, rows);
+        freeRows = copyOf(freeRows, rows);
+        ids = copyOf(ids, rows);
+        playerIds = copyOf(playerIds, rows);
+        nicknames = copyOf(nicknames, rows);
+        colors = copyOf(colors, rows);
+        argbColors = copyOf(argbColors, rows);
+        scores = copyOf(scores, rows);
+        alive = copyOf(alive, rows);
+        directions = copyOf(directions, rows);
+        growing = copyOf(growing, rows);
+        growthPending = copyOf(growthPending, rows);
+        justAte = copyOf(justAte, rows);
+        lengths = copyOf(lengths, rows);
+        heads = copyOf(heads, rows);
+        segmentStart = copyOf(segmentStart, rows);
+        segmentCapacity = copyOf(segmentCapacity, rows);
+        ringHead = copyOf(ringHead, rows);
+        runs = copyOf(runs, rows);
+        rleBodies = copyOf(rleBodies, rows);
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    private static byte[] copyOf(byte[] array, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    private static boolean[] copyOf(boolean[] array, int length) {
+        boolean[] copy = new boolean[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    private static <T> T[] copyOf(T[] array, int length) {
+        return java.util.Arrays.copyOf(array, length);
+    }
+}
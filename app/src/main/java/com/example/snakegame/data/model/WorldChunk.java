@@ -0,0 +1,139 @@
+package com.example.snakegame.data.model;
+
+import java.util.Arrays;
+
+/**
+ * 世界地图的一个区块（CHUNK_SIZE x CHUNK_SIZE），保存区块内的全部格子状态：
+ * 蛇的占用、食物引用、空闲格子列表和食物桶。区块内部再分成 BLOCK_SIZE x BLOCK_SIZE 的小块，
+ * 空闲格子和食物都按小块存放，用于矩形查询和附近取样。
+ * 区块只在有蛇或食物进入时才由 {@link OccupancyGrid} 创建，清空后即被释放，
+ * 没有创建的区块视为全部空闲。格子用区块内的下标 ly * CHUNK_SIZE + lx 表示。
+ */
+final class WorldChunk {
+    static final int CHUNK_SHIFT = 5;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+    static final int BLOCK_SHIFT = 3;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_AREA = BLOCK_SIZE * BLOCK_SIZE;
+    static final int BLOCKS_PER_ROW = CHUNK_SIZE / BLOCK_SIZE;
+    static final int BLOCK_COUNT = BLOCKS_PER_ROW * BLOCKS_PER_ROW;
+
+    final int width;       // 区块在地图内的宽度（地图边缘的区块可能不满）
+    final int height;
+    final int insideArea;
+
+    // 占用状态
+    final int[] snakeOwner = new int[CHUNK_AREA];
+    final short[] segmentCount = new short[CHUNK_AREA];
+    final int[] foodRef = new int[CHUNK_AREA];
+
+    // 空闲格子：第b个小块的空闲格子保存在 freeCells[b * BLOCK_AREA ..]
+    final short[] freeCells = new short[CHUNK_AREA];
+    final short[] freeSlot = new short[CHUNK_AREA]; // 格子在小块列表中的下标，不空闲为-1
+    final int[] blockFree = new int[BLOCK_COUNT];
+    int freeCount;
+
+    // 食物桶：每个小块一个
+    final Food[][] foodBuckets = new Food[BLOCK_COUNT][];
+    final int[] foodBucketSizes = new int[BLOCK_COUNT];
+    int foodCount;
+
+    WorldChunk(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.insideArea = width * height;
+
+        Arrays.fill(freeSlot, (short) -1);
+        for (int ly = 0; ly < height; ly++) {
+            for (int lx = 0; lx < width; lx++) {
+                markFree(ly * CHUNK_SIZE + lx);
+            }
+        }
+    }
+
+    // 区块内没有蛇也没有食物，可以释放
+    boolean isEmpty() {
+        return freeCount == insideArea && foodCount == 0;
+    }
+
+    // 格子变为空闲，返回状态是否改变
+    boolean markFree(int cell) {
+        if (freeSlot[cell] >= 0) return false;
+        int block = blockOf(cell);
+        int slot = blockFree[block]++;
+        freeCells[block * BLOCK_AREA + slot] = (short) cell;
+        freeSlot[cell] = (short) slot;
+        freeCount++;
+        return true;
+    }
+
+    // 格子被占用，返回状态是否改变
+    boolean markOccupied(int cell) {
+        int slot = freeSlot[cell];
+        if (slot < 0) return false;
+        int block = blockOf(cell);
+        int base = block * BLOCK_AREA;
+        int last = --blockFree[block];
+        if (slot != last) {
+            short moved = freeCells[base + last];
+            freeCells[base + slot] = moved;
+            freeSlot[moved] = (short) slot;
+        }
+        freeSlot[cell] = -1;
+        freeCount--;
+        return true;
+    }
+
+    // 区块内第k个空闲格子
+    int freeCellAt(int k) {
+        for (int block = 0; block < BLOCK_COUNT; block++) {
+            if (k < blockFree[block]) {
+                return freeCells[block * BLOCK_AREA + k];
+            }
+            k -= blockFree[block];
+        }
+        return -1;
+    }
+
+    void addFood(int cell, Food food) {
+        int block = blockOf(cell);
+        Food[] foods = foodBuckets[block];
+        int size = foodBucketSizes[block];
+        if (foods == null) {
+            foods = new Food[4];
+            foodBuckets[block] = foods;
+        } else if (size == foods.length) {
+            Food[] grown = new Food[size * 2];
+            System.arraycopy(foods, 0, grown, 0, size);
+            foods = grown;
+            foodBuckets[block] = foods;
+        }
+        foods[size] = food;
+        food.setBucketSlot(size);
+        foodBucketSizes[block] = size + 1;
+        foodCount++;
+    }
+
+    // 与桶内最后一个食物交换后删除，返回是否删除
+    boolean removeFood(int cell, Food food) {
+        int block = blockOf(cell);
+        int slot = food.getBucketSlot();
+        if (slot < 0 || slot >= foodBucketSizes[block] || foodBuckets[block][slot] != food) return false;
+
+        Food[] foods = foodBuckets[block];
+        int last = --foodBucketSizes[block];
+        if (slot != last) {
+            foods[slot] = foods[last];
+            foods[slot].setBucketSlot(slot);
+        }
+        foods[last] = null;
+        food.setBucketSlot(-1);
+        foodCount--;
+        return true;
+    }
+
+    static int blockOf(int cell) {
+        return ((cell >> CHUNK_SHIFT) >> BLOCK_SHIFT) * BLOCKS_PER_ROW + ((cell & (CHUNK_SIZE - 1)) >> BLOCK_SHIFT);
+    }
+}
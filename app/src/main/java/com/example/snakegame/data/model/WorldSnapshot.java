@@ -0,0 +1,310 @@
+package com.example.snakegame.data.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 某一帧世界状态的只读副本，供渲染和UI使用，全部用基本类型数组保存。
+ * 由模拟线程通过 {@link #capture(GameWorld, long)} 写入，之后交给读取方，期间不会再被修改。
+ * 蛇身和食物只复制视野（外扩MARGIN格）内的部分，蛇头、分数和排行榜总是完整复制；
+ * 蛇身通过分段的包围盒查找，很长的蛇也只遍历视野附近的部分。
+ * 数组在多次写入之间复用，容量不够时才扩容，稳定运行时不产生新的对象。
+ */
+public final class WorldSnapshot {
+    public static final int LEADERBOARD_SIZE = 10;
+    private static final int MARGIN = 2;
+    private static final Food.FoodType[] FOOD_TYPES = Food.FoodType.values();
+
+    private long version;
+
+    // 世界和视野
+    private int worldCols;
+    private int worldRows;
+    private int gridSize;
+    private int viewOffsetX;
+    private int viewOffsetY;
+    private boolean gameRunning;
+
+    // 蛇：下标0是自己的蛇（存在时），之后是活着的其他蛇
+    private int snakeCount;
+    private boolean hasMySnake;
+    private String[] nicknames = new String[8];
+    private int[] colors = new int[8];          // ARGB
+    private int[] scores = new int[8];
+    private byte[] directions = new byte[8];
+    private boolean[] alive = new boolean[8];
+    private int[] lengths = new int[8];
+    private int[] heads = new int[8];           // 蛇头（压缩坐标），长度为0时为-1
+    private int[] bodyStart = new int[8];       // 该蛇的可见蛇身在segments中的起始位置
+    private int[] bodyCount = new int[8];
+    private int[] segments = new int[256];      // 可见蛇身（不含蛇头）的压缩坐标
+    private int segmentCount;
+    private final SnakeTable.SegmentVisitor segmentCollector = new SnakeTable.SegmentVisitor() {
+        @Override
+        public void visit(int segment) {
+            addSegment(segment);
+        }
+    };
+
+    // 视野内的食物
+    private int foodCount;
+    private int[] foodCells = new int[64];
+    private byte[] foodTypes = new byte[64];
+    private final FoodIndex.FoodVisitor foodCollector = new FoodIndex.FoodVisitor() {
+        @Override
+        public void visit(Food food) {
+            addFood(food);
+        }
+    };
+
+    // 排行榜前LEADERBOARD_SIZE名，Player条目属于这个快照，不与GameWorld共享
+    private final Player[] leaders = new Player[LEADERBOARD_SIZE];
+    private final Player[] topScratch = new Player[LEADERBOARD_SIZE];
+    private int leaderCount;
+    private final List<Player> leaderboardView = new LeadersView();
+
+    public WorldSnapshot() {
+        for (int i = 0; i < LEADERBOARD_SIZE; i++) {
+            leaders[i] = new Player();
+        }
+    }
+
+    /**
+     * 复制世界的当前状态（模拟线程调用）
+     *
+     * @param version 递增的版本号，用于判断快照的新旧
+     */
+    public void capture(GameWorld world, long version) {
+        this.version = version;
+        worldCols = world.getWorldMapCols();
+        worldRows = world.getWorldMapRows();
+        gridSize = world.getGridSize();
+        viewOffsetX = world.getViewOffsetX();
+        viewOffsetY = world.getViewOffsetY();
+        gameRunning = world.isGameRunning();
+
+        int left = viewOffsetX - MARGIN;
+        int top = viewOffsetY - MARGIN;
+        int right = viewOffsetX + world.getGridCols() + MARGIN;
+        int bottom = viewOffsetY + world.getGridRows() + MARGIN;
+
+        // 按列读取世界的蛇表：先放自己的蛇，再按行序放其他活着的蛇
+        snakeCount = 0;
+        segmentCount = 0;
+        SnakeTable table = world.getSnakeTable();
+        Snake mySnake = world.getMySnake();
+        hasMySnake = mySnake != null;
+        int myRow = -1;
+        if (hasMySnake) {
+            myRow = mySnake.row;
+            addSnake(table, myRow, left, top, right, bottom);
+        }
+        int rowCount = table.getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            if (row != myRow && table.alive[row] && table.getSnake(row) != null) {
+                addSnake(table, row, left, top, right, bottom);
+            }
+        }
+
+        foodCount = 0;
+        if (world.getFoods() != null) {
+            world.getFoodIndex().forEachInRect(left, top, right, bottom, foodCollector);
+        }
+
+        leaderCount = world.getRanking().getTop(LEADERBOARD_SIZE, topScratch);
+        for (int i = 0; i < leaderCount; i++) {
+            Player source = topScratch[i];
+            Player target = leaders[i];
+            target.setPlayerId(source.getPlayerId());
+            target.setNickname(source.getNickname());
+            target.setScore(source.getScore());
+            topScratch[i] = null;
+        }
+    }
+
+    private void addSnake(SnakeTable table, int row, int left, int top, int right, int bottom) {
+        if (snakeCount == scores.length) {
+            growSnakes(snakeCount * 2);
+        }
+        int index = snakeCount++;
+        int length = table.lengths[row];
+        nicknames[index] = table.nicknames[row];
+        colors[index] = table.argbColors[row];
+        scores[index] = table.scores[row];
+        directions[index] = table.directions[row];
+        alive[index] = table.alive[row];
+        lengths[index] = length;
+        heads[index] = length > 0 ? table.heads[row] : -1;
+
+        bodyStart[index] = segmentCount;
+        table.forEachBodySegmentInRect(row, left, top, right, bottom, segmentCollector);
+        bodyCount[index] = segmentCount - bodyStart[index];
+    }
+
+    private void addSegment(int segment) {
+        if (segmentCount == segments.length) {
+            int[] grown = new int[segmentCount * 2];
+            System.arraycopy(segments, 0, grown, 0, segmentCount);
+            segments = grown;
+        }
+        segments[segmentCount++] = segment;
+    }
+
+    private void addFood(Food food) {
+        if (foodCount == foodCells.length) {
+            int[] grownCells = new int[foodCount * 2];
+            byte[] grownTypes = new byte[foodCount * 2];
+            System.arraycopy(foodCells, 0, grownCells, 0, foodCount);
+            System.arraycopy(foodTypes, 0, grownTypes, 0, foodCount);
+            foodCells = grownCells;
+            foodTypes = grownTypes;
+        }
+        Point position = food.getPosition();
+        foodCells[foodCount] = PackedPoint.pack(position.getX(), position.getY());
+        foodTypes[foodCount] = (byte) food.getType().ordinal();
+        foodCount++;
+    }
+
+    private void growSnakes(int capacity) {
+        String[] grownNicknames = new String[capacity];
+        int[] grownColors = new int[capacity];
+        int[] grownScores = new int[capacity];
+        byte[] grownDirections = new byte[capacity];
+        boolean[] grownAlive = new boolean[capacity];
+        int[] grownLengths = new int[capacity];
+        int[] grownHeads = new int[capacity];
+        int[] grownBodyStart = new int[capacity];
+        int[] grownBodyCount = new int[capacity];
+        System.arraycopy(nicknames, 0, grownNicknames, 0, snakeCount);
+        System.arraycopy(colors, 0, grownColors, 0, snakeCount);
+        System.arraycopy(scores, 0, grownScores, 0, snakeCount);
+        System.arraycopy(directions, 0, grownDirections, 0, snakeCount);
+        System.arraycopy(alive, 0, grownAlive, 0, snakeCount);
+        System.arraycopy(lengths, 0, grownLengths, 0, snakeCount);
+        System.arraycopy(heads, 0, grownHeads, 0, snakeCount);
+        System.arraycopy(bodyStart, 0, grownBodyStart, 0, snakeCount);
+        System.arraycopy(bodyCount, 0, grownBodyCount, 0, snakeCount);
+        nicknames = grownNicknames;
+        colors = grownColors;
+        scores = grownScores;
+        directions = grownDirections;
+        alive = grownAlive;
+        lengths = grownLengths;
+        heads = grownHeads;
+        bodyStart = grownBodyStart;
+        bodyCount = grownBodyCount;
+    }
+
+    // ---------------- 读取 ----------------
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getWorldMapCols() {
+        return worldCols;
+    }
+
+    public int getWorldMapRows() {
+        return worldRows;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public int getViewOffsetX() {
+        return viewOffsetX;
+    }
+
+    public int getViewOffsetY() {
+        return viewOffsetY;
+    }
+
+    public boolean isGameRunning() {
+        return gameRunning;
+    }
+
+    public int getSnakeCount() {
+        return snakeCount;
+    }
+
+    // 自己的蛇在快照中的下标，不存在时返回-1
+    public int getMySnakeIndex() {
+        return hasMySnake ? 0 : -1;
+    }
+
+    public String getNickname(int snake) {
+        return nicknames[snake];
+    }
+
+    // ARGB颜色
+    public int getColor(int snake) {
+        return colors[snake];
+    }
+
+    public int getScore(int snake) {
+        return scores[snake];
+    }
+
+    // 与Snake.getDirection一致，没有方向时返回null
+    public Direction getDirection(int snake) {
+        return Direction.fromCode(directions[snake]);
+    }
+
+    public boolean isAlive(int snake) {
+        return alive[snake];
+    }
+
+    public int getLength(int snake) {
+        return lengths[snake];
+    }
+
+    // 蛇头的压缩坐标，蛇长度为0时返回-1
+    public int getHead(int snake) {
+        return heads[snake];
+    }
+
+    // 视野内的蛇身节数（不含蛇头）
+    public int getVisibleBodyCount(int snake) {
+        return bodyCount[snake];
+    }
+
+    // 视野内的第i节蛇身的压缩坐标
+    public int getVisibleBodySegment(int snake, int i) {
+        return segments[bodyStart[snake] + i];
+    }
+
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    public int getFoodCell(int i) {
+        return foodCells[i];
+    }
+
+    public Food.FoodType getFoodType(int i) {
+        return FOOD_TYPES[foodTypes[i]];
+    }
+
+    // 排行榜前LEADERBOARD_SIZE名的只读视图
+    public List<Player> getLeaderboard() {
+        return leaderboardView;
+    }
+
+    private class LeadersView extends AbstractList<Player> implements RandomAccess {
+        @Override
+        public Player get(int index) {
+            if (index < 0 || index >= leaderCount) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + leaderCount);
+            }
+            return leaders[index];
+        }
+
+        @Override
+        public int size() {
+            return leaderCount;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.snakegame.engine;
+
+import com.example.snakegame.data.model.Direction;
+import com.example.snakegame.data.model.Food;
+import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.OccupancyGrid;
+import com.example.snakegame.data.model.PackedPoint;
+import com.example.snakegame.data.model.Snake;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 一条Bot的AI：在蛇头附近的窗口内用有界BFS在占用网格上寻找最近的食物，
+ * 避开所有蛇身和墙，每条Bot每帧最多展开 NODE_BUDGET 个节点。
+ * 找到的路径会缓存下来，之后每帧只检查是否仍然有效（目标食物还在、下一格可走），
+ * 失效时才重新搜索；找不到食物时会等待几帧再搜索，期间只做安全移动。
+ * 只读取世界状态，可以在MovePlanner的并行阶段中调用。
+ */
+final class BotBrain {
+    static final int NODE_BUDGET = 200;          // 每帧最多展开的节点数
+    private static final int SEARCH_RADIUS = 16; // 搜索窗口半径
+    private static final int WINDOW = SEARCH_RADIUS * 2 + 1;
+    private static final int MAX_PLAN = 64;      // 缓存路径的最大步数
+    private static final int RETRY_DELAY = 5;    // 没有找到食物时，等待几帧再搜索
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // BFS的临时数组，每个线程一份
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private final byte[] plan = new byte[MAX_PLAN];
+    private int planLength;
+    private int planIndex;
+    private int expectedHead;  // 执行下一步时蛇头应在的位置
+    private int target;        // 目标食物的位置
+    private int retryDelay;
+
+    /**
+     * 决定Bot本帧的方向
+     */
+    Direction decide(Snake snake, GameWorld world, OccupancyGrid grid, SplittableRandom random) {
+        Direction current = snake.getDirection();
+        int headX = snake.getHeadX();
+        int headY = snake.getHeadY();
+
+        if (!isPlanValid(headX, headY, current, grid)) {
+            planLength = 0;
+            if (retryDelay > 0) {
+                retryDelay--;
+            } else if (!search(headX, headY, current, world, grid)) {
+                retryDelay = RETRY_DELAY;
+            }
+        }
+
+        if (planIndex < planLength) {
+            Direction next = DIRECTIONS[plan[planIndex++]];
+            expectedHead = PackedPoint.pack(headX + next.getDx(), headY + next.getDy());
+            return next;
+        }
+        return safeDirection(headX, headY, current, grid, random);
+    }
+
+    private boolean isPlanValid(int headX, int headY, Direction current, OccupancyGrid grid) {
+        if (planIndex >= planLength) return false;
+        if (expectedHead != PackedPoint.pack(headX, headY)) return false;
+        if (grid.foodAt(PackedPoint.x(target), PackedPoint.y(target)) == OccupancyGrid.EMPTY) return false;
+
+        Direction next = DIRECTIONS[plan[planIndex]];
+        return !next.isOpposite(current) && isPassable(grid, headX + next.getDx(), headY + next.getDy());
+    }
+
+    // 有界BFS，找到食物时写入plan并返回true
+    private boolean search(int headX, int headY, Direction current, GameWorld world, OccupancyGrid grid) {
+        Scratch scratch = SCRATCH.get();
+        int stamp = scratch.nextStamp();
+        int originX = headX - SEARCH_RADIUS;
+        int originY = headY - SEARCH_RADIUS;
+
+        int start = SEARCH_RADIUS * WINDOW + SEARCH_RADIUS;
+        scratch.visited[start] = stamp;
+        int queueHead = 0;
+        int queueTail = 0;
+        scratch.queue[queueTail++] = start;
+        int expanded = 0;
+
+        while (queueHead < queueTail && expanded < NODE_BUDGET) {
+            int node = scratch.queue[queueHead++];
+            expanded++;
+            int nodeX = node % WINDOW;
+            int nodeY = node / WINDOW;
+
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                Direction direction = DIRECTIONS[d];
+                // 第一步不能反向
+                if (node == start && direction.isOpposite(current)) continue;
+
+                int nextX = nodeX + direction.getDx();
+                int nextY = nodeY + direction.getDy();
+                if (nextX < 0 || nextX >= WINDOW || nextY < 0 || nextY >= WINDOW) continue;
+                int next = nextY * WINDOW + nextX;
+                if (scratch.visited[next] == stamp) continue;
+
+                int worldX = originX + nextX;
+                int worldY = originY + nextY;
+                if (!isPassable(grid, worldX, worldY)) continue;
+
+                scratch.visited[next] = stamp;
+                scratch.parent[next] = (byte) d;
+                if (isWantedFood(world, grid, worldX, worldY)) {
+                    buildPlan(scratch, start, next);
+                    target = PackedPoint.pack(worldX, worldY);
+                    expectedHead = PackedPoint.pack(headX, headY);
+                    return true;
+                }
+                scratch.queue[queueTail++] = next;
+            }
+        }
+        return false;
+    }
+
+    // 从目标沿parent回溯到起点，得到正向的路径
+    private void buildPlan(Scratch scratch, int start, int goal) {
+        int length = 0;
+        for (int node = goal; node != start; ) {
+            Direction step = DIRECTIONS[scratch.parent[node]];
+            scratch.path[length++] = scratch.parent[node];
+            node = (node % WINDOW - step.getDx()) + (node / WINDOW - step.getDy()) * WINDOW;
+        }
+        planLength = Math.min(length, MAX_PLAN);
+        for (int i = 0; i < planLength; i++) {
+            plan[i] = scratch.path[length - 1 - i];
+        }
+        planIndex = 0;
+    }
+
+    // 没有路径时的安全移动：优先保持方向，否则随机选一个可走的方向
+    private static Direction safeDirection(int headX, int headY, Direction current, OccupancyGrid grid,
+                                           SplittableRandom random) {
+        if (isPassable(grid, headX + current.getDx(), headY + current.getDy())) {
+            return current;
+        }
+        int offset = random.nextInt(DIRECTIONS.length);
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            Direction direction = DIRECTIONS[(offset + i) % DIRECTIONS.length];
+            if (!direction.isOpposite(current) &&
+                isPassable(grid, headX + direction.getDx(), headY + direction.getDy())) {
+                return direction;
+            }
+        }
+        return current;
+    }
+
+    private static boolean isPassable(OccupancyGrid grid, int x, int y) {
+        return grid.isInside(x, y) && !grid.hasSnake(x, y);
+    }
+
+    // 坏食物会扣分，不作为目标
+    private static boolean isWantedFood(GameWorld world, OccupancyGrid grid, int x, int y) {
+        if (grid.foodAt(x, y) == OccupancyGrid.EMPTY) return false;
+        Food food = world.getFoodAt(x, y);
+        return food != null && food.getType() != Food.FoodType.BAD_FOOD;
+    }
+
+    private static final class Scratch {
+        final int[] visited = new int[WINDOW * WINDOW];
+        final byte[] parent = new byte[WINDOW * WINDOW];
+        final int[] queue = new int[WINDOW * WINDOW];
+        final byte[] path = new byte[WINDOW * WINDOW];
+        int stamp;
+
+        int nextStamp() {
+            if (++stamp == 0) {
+                Arrays.fill(visited, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
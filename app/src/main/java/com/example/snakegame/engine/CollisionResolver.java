@@ -0,0 +1,85 @@
+package com.example.snakegame.engine;
+
+import java.util.Arrays;
+
+/**
+ * tick的统一碰撞阶段：收集所有活着的蛇本帧要进入的格子，一次遍历判定谁会死亡。
+ * 撞墙、蛇头撞到蛇身由调用方在占用网格上O(1)查询后传入；
+ * 蛇头对蛇头（两条蛇进入同一个格子）通过按格子散列的表检测，两条蛇都死亡。
+ * 所有判定都基于本帧开始时的状态，与蛇的处理顺序无关，总代价是O(蛇的数量)。
+ */
+final class CollisionResolver {
+    private static final int NO_SNAKE = -1;
+
+    private boolean[] dead = new boolean[0];
+    // 开放寻址散列表：格子（压缩坐标） -> 第一条进入该格子的蛇的下标
+    private int[] cells = new int[0];
+    private int[] owners = new int[0];
+    private int[] stamps = new int[0];  // 槽位属于哪一帧，避免每帧清空
+    private int stamp;
+    private int mask;
+
+    /**
+     * 开始新的一帧，最多有count条蛇参与
+     */
+    void begin(int count) {
+        if (dead.length < count) {
+            dead = new boolean[count];
+        } else {
+            for (int i = 0; i < count; i++) {
+                dead[i] = false;
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+        if (stamps.length < capacity) {
+            cells = new int[capacity];
+            owners = new int[capacity];
+            stamps = new int[capacity];
+            stamp = 0;
+        }
+        mask = stamps.length - 1;
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * 第index条蛇本帧进入cell格子
+     *
+     * @param blocked 该格子在地图外或已有其他蛇
+     */
+    void addHead(int index, int cell, boolean blocked) {
+        if (blocked) {
+            dead[index] = true;
+            return;
+        }
+
+        int other = claim(cell, index);
+        if (other != NO_SNAKE) {
+            dead[index] = true;
+            dead[other] = true;
+        }
+    }
+
+    boolean isDead(int index) {
+        return dead[index];
+    }
+
+    // 占用格子，已被占用时返回先进入的蛇的下标
+    private int claim(int cell, int index) {
+        int hash = cell * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (stamps[slot] == stamp) {
+            if (cells[slot] == cell) {
+                return owners[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        stamps[slot] = stamp;
+        cells[slot] = cell;
+        owners[slot] = index;
+        return NO_SNAKE;
+    }
+}
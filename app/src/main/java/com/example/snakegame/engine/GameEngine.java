@@ -0,0 +1,562 @@
+package com.example.snakegame.engine;
+
+import com.example.snakegame.data.model.Direction;
+import com.example.snakegame.data.model.Food;
+import com.example.snakegame.data.model.FoodPool;
+import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.Leaderboard;
+import com.example.snakegame.data.model.PackedPoint;
+import com.example.snakegame.data.model.Point;
+import com.example.snakegame.data.model.Snake;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 纯Java的游戏模拟引擎，不依赖任何Android类。
+ * 持有GameWorld并负责全部游戏规则：移动、碰撞、食物生成、Bot行为和排行榜。
+ * 由调用方（Presenter、服务器或测试）按固定间隔调用 {@link #tick(Map)} 推进一帧。
+ */
+public class GameEngine {
+
+    /**
+     * 引擎事件回调
+     */
+    public interface GameEngineListener {
+        // 本地玩家的蛇死亡（撞墙或撞到其他蛇），finalScore为死亡时的分数，deathPosition为死亡时的蛇头位置；
+        // 在模拟线程中调用，只传值，不把正在模拟的Snake交给其他线程
+        void onPlayerDied(int finalScore, Point deathPosition);
+    }
+
+    private static final int INITIAL_FOOD_COUNT = 30;   // 初始食物数量
+    private static final int TARGET_FOOD_COUNT = 20;    // 世界地图上的最少食物数量
+    private static final int MIN_FOOD_IN_VIEWPORT = 3;  // 视野内的最少食物数量
+    private static final int TURNS_PER_TICK = 1;        // 每帧从输入队列中最多采用的转向数
+
+    private GameWorld gameWorld;
+    private GameEngineListener listener;
+    private final MovePlanner movePlanner = new MovePlanner();
+    private final CollisionResolver collisions = new CollisionResolver();
+    private final FoodPool foodPool = new FoodPool();
+    // playerId -> 输入队列，可以从任意线程注册和写入
+    private final Map<String, InputQueue> inputQueues = new ConcurrentHashMap<>();
+    // 渲染层设置的视野大小（压缩坐标），-1表示还没有设置
+    private volatile int pendingViewport = -1;
+    private MatchRandom random = new MatchRandom(System.nanoTime());
+
+    public GameEngine() {
+        this.gameWorld = new GameWorld();
+    }
+
+    public void setListener(GameEngineListener listener) {
+        this.listener = listener;
+    }
+
+    public GameWorld getGameWorld() {
+        return gameWorld;
+    }
+
+    // 当前这一局的随机种子，用于回放
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+    // 食物对象池，可读取池的大小用于统计
+    public FoodPool getFoodPool() {
+        return foodPool;
+    }
+
+    /**
+     * 玩家的输入队列，不存在时创建。UI、网络或回放线程通过它提交方向输入，无需加锁
+     */
+    public InputQueue getInputQueue(String playerId) {
+        InputQueue queue = inputQueues.get(playerId);
+        if (queue == null) {
+            InputQueue created = new InputQueue();
+            queue = inputQueues.putIfAbsent(playerId, created);
+            if (queue == null) {
+                queue = created;
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * 创建新的一局：玩家的蛇、Bot蛇、排行榜和初始食物，使用随机种子
+     */
+    public GameWorld createWorld(String playerId, String nickname, String color) {
+        return createWorld(playerId, nickname, color, System.nanoTime());
+    }
+
+    /**
+     * 用指定的种子创建新的一局。同样的种子加上同样的输入序列总能得到同样的世界
+     */
+    public GameWorld createWorld(String playerId, String nickname, String color, long seed) {
+        random = new MatchRandom(seed);
+        recycleFoods(gameWorld);
+        gameWorld = new GameWorld();
+        for (InputQueue queue : inputQueues.values()) {
+            queue.clear();
+        }
+        gameWorld.setGridSize(20);
+        applyViewportSize();
+        gameWorld.setGameSpeed(100); // 设置为100ms，使移动更流畅
+
+        // 设置大世界地图（100x100）
+        gameWorld.setWorldMapCols(100);
+        gameWorld.setWorldMapRows(100);
+
+        // 创建玩家的蛇（在世界中心附近）
+        Snake mySnake = new Snake();
+        mySnake.setPlayerId(playerId);
+        mySnake.setNickname(nickname);
+        mySnake.setColor(color);
+        mySnake.setScore(0);
+        mySnake.setAlive(true);
+
+        // 在世界地图中心附近初始化蛇
+        List<Point> bodyPoints = new ArrayList<>();
+        bodyPoints.add(new Point(50, 50));  // 世界坐标
+        bodyPoints.add(new Point(50, 51));
+        bodyPoints.add(new Point(50, 52));
+        mySnake.setBodyPoints(bodyPoints);
+        mySnake.setDirection(Direction.UP);
+
+        gameWorld.setMySnake(mySnake);
+
+        // 更新视野以蛇头为中心
+        gameWorld.updateViewToCenter(bodyPoints.get(0));
+
+        createBotSnakes();
+        generateInitialFood();
+        return gameWorld;
+    }
+
+    /**
+     * 推进一帧模拟，玩家输入从各自的输入队列中读取
+     */
+    public void tick() {
+        tick(null);
+    }
+
+    /**
+     * 推进一帧模拟
+     *
+     * @param inputs 本帧直接生效的玩家输入，playerId -> 方向，可以为null；之后再读取输入队列
+     */
+    public void tick(Map<String, Direction> inputs) {
+        applyViewportSize();
+        if (inputs != null && !inputs.isEmpty()) {
+            applyInputs(inputs);
+        }
+        drainInputQueues();
+
+        updateSnakes();
+
+        Snake mySnake = gameWorld.getMySnake();
+        if (mySnake != null && mySnake.isAlive()) {
+            // 更新视野以蛇头为中心
+            gameWorld.updateViewToCenter(mySnake.getHeadX(), mySnake.getHeadY());
+        } else if (mySnake != null) {
+            // 玩家已死亡，进入旁观模式，视野跟随排行榜第一名
+            followLeader();
+        }
+
+        // 确保有足够的食物，但不要频繁重新生成
+        ensureFoodInViewport();
+    }
+
+    /**
+     * 修改蛇的方向，禁止直接反向
+     *
+     * @return 方向是否被采用
+     */
+    public boolean changeDirection(Snake snake, Direction direction) {
+        if (snake == null || !snake.isAlive() || direction == null) return false;
+        if (direction.isOpposite(snake.getDirection())) {
+            return false;
+        }
+        snake.setDirection(direction);
+        return true;
+    }
+
+    // 更新实际的视野网格大小（由渲染层根据屏幕尺寸计算），可以从任意线程调用，在下一次tick时生效。
+    // 渲染线程第一次布局之前网格大小为0，忽略不是正数的大小，继续使用默认视野
+    public void setViewportSize(int gridCols, int gridRows) {
+        if (gridCols <= 0 || gridRows <= 0) return;
+        pendingViewport = PackedPoint.pack(gridCols, gridRows);
+    }
+
+    private void applyViewportSize() {
+        int viewport = pendingViewport;
+        if (viewport < 0) return;
+        gameWorld.setGridCols(PackedPoint.x(viewport));
+        gameWorld.setGridRows(PackedPoint.y(viewport));
+    }
+
+    /**
+     * 视野跟随排行榜第一名的活着的蛇（旁观模式）
+     */
+    public void followLeader() {
+        Leaderboard ranking = gameWorld.getRanking();
+        if (ranking.size() == 0) return;
+
+        Snake topSnake = ranking.getSnake(0);
+        if (topSnake != gameWorld.getMySnake() && topSnake.isAlive() && topSnake.getLength() > 0) {
+            gameWorld.updateViewToCenter(topSnake.getHeadX(), topSnake.getHeadY());
+        }
+    }
+
+    private void applyInputs(Map<String, Direction> inputs) {
+        Snake mySnake = gameWorld.getMySnake();
+        if (mySnake != null) {
+            Direction direction = inputs.get(mySnake.getPlayerId());
+            if (direction != null) {
+                changeDirection(mySnake, direction);
+            }
+        }
+        List<Snake> otherSnakes = gameWorld.getOtherSnakes();
+        if (otherSnakes != null) {
+            for (int i = 0; i < otherSnakes.size(); i++) {
+                Snake snake = otherSnakes.get(i);
+                Direction direction = inputs.get(snake.getPlayerId());
+                if (direction != null) {
+                    changeDirection(snake, direction);
+                }
+            }
+        }
+    }
+
+    private void drainInputQueues() {
+        if (inputQueues.isEmpty()) return;
+
+        drainInputQueue(gameWorld.getMySnake());
+        List<Snake> otherSnakes = gameWorld.getOtherSnakes();
+        if (otherSnakes != null) {
+            for (int i = 0; i < otherSnakes.size(); i++) {
+                drainInputQueue(otherSnakes.get(i));
+            }
+        }
+    }
+
+    // 依次取出排队的转向，每个转向都相对于前一个转向之后的方向检查是否反向；
+    // 与当前方向相同或反向的转向被丢弃，本帧最多采用TURNS_PER_TICK个，其余留到之后的tick
+    private void drainInputQueue(Snake snake) {
+        if (snake == null) return;
+        InputQueue queue = inputQueues.get(snake.getPlayerId());
+        if (queue == null) return;
+
+        int applied = 0;
+        while (applied < TURNS_PER_TICK) {
+            Direction direction = queue.poll();
+            if (direction == null) break;
+            if (direction != snake.getDirection() && changeDirection(snake, direction)) {
+                applied++;
+            }
+        }
+    }
+
+    private void killPlayer(Snake mySnake) {
+        Point deathPosition = mySnake.getHead();
+        mySnake.setAlive(false);
+        gameWorld.removeSnakeFromGrid(mySnake);
+        if (listener != null) {
+            listener.onPlayerDied(mySnake.getScore(), deathPosition);
+        }
+    }
+
+    private void killBot(Snake botSnake) {
+        botSnake.setAlive(false);
+        gameWorld.removeSnakeFromGrid(botSnake);
+        gameWorld.getRanking().remove(botSnake);
+    }
+
+    private void createBotSnakes() {
+        List<Snake> otherSnakes = new ArrayList<>();
+        SplittableRandom botRandom = random.bots();
+        SplittableRandom spawnRandom = random.spawn();
+        movePlanner.reset(random);
+
+        // 创建多个Bot蛇
+        String[] botNames = {"Bot Alpha", "Bot Beta", "Bot Gamma", "Snake AI"};
+        String[] botColors = {"#FF00FF", "#00FFFF", "#FFFF00", "#FF8000"};
+
+        for (int i = 0; i < botNames.length; i++) {
+            Snake botSnake = new Snake();
+            botSnake.setPlayerId("bot" + (i + 1));
+            botSnake.setNickname(botNames[i]);
+            botSnake.setColor(botColors[i]);
+            botSnake.setScore(botRandom.nextInt(15) + 1); // 1-15的随机分数
+            botSnake.setAlive(true);
+
+            // 在世界地图的随机位置生成Bot蛇
+            List<Point> botBodyPoints = new ArrayList<>();
+            int startX;
+            int startY;
+            int attempts = 0;
+
+            do {
+                startX = spawnRandom.nextInt(gameWorld.getWorldMapCols() - 10) + 5;
+                startY = spawnRandom.nextInt(gameWorld.getWorldMapRows() - 10) + 5;
+                attempts++;
+            } while (gameWorld.isPositionOccupied(startX, startY) && attempts < 20);
+
+            if (attempts < 20) {
+                botBodyPoints.add(new Point(startX, startY));
+                botBodyPoints.add(new Point(startX, startY + 1));
+                botBodyPoints.add(new Point(startX, startY + 2));
+
+                botSnake.setBodyPoints(botBodyPoints);
+
+                // 随机方向
+                botSnake.setDirection(Direction.fromCode(botRandom.nextInt(4)));
+
+                otherSnakes.add(botSnake);
+            }
+        }
+
+        gameWorld.setOtherSnakes(otherSnakes);
+    }
+
+    private void generateInitialFood() {
+        gameWorld.setFoods(new ArrayList<>());
+
+        // 在整个世界地图上生成初始食物
+        for (int i = 0; i < INITIAL_FOOD_COUNT; i++) {
+            int cell = gameWorld.randomFreeCell(random.spawn());
+            if (cell < 0) break; // 地图已满
+
+            // 10% 概率生成好食物（星星），10% 概率生成坏食物（骷髅头），其余为普通食物（苹果）
+            spawnFood(cell, rollFoodType(random.food(), 10, 10));
+        }
+    }
+
+    // 只在需要时添加食物，不删除现有食物
+    private void generateFood() {
+        if (gameWorld.getFoods() == null) {
+            gameWorld.setFoods(new ArrayList<>());
+        }
+
+        List<Food> foods = gameWorld.getFoods();
+
+        // 确保世界地图上有足够的食物
+        int currentFoodCount = foods.size();
+
+        if (currentFoodCount < TARGET_FOOD_COUNT) {
+            int foodToAdd = TARGET_FOOD_COUNT - currentFoodCount;
+
+            for (int i = 0; i < foodToAdd; i++) {
+                int cell = gameWorld.randomFreeCell(random.spawn());
+                if (cell < 0) break; // 地图已满
+
+                spawnFood(cell, rollFoodType(random.food(), 5, 10));
+            }
+        }
+    }
+
+    // 检查视野内食物数量，太少时在视野附近补充
+    private void ensureFoodInViewport() {
+        if (gameWorld.getFoods() == null) {
+            generateFood();
+            return;
+        }
+
+        // 通过食物索引统计视野内的食物数量，只访问视野覆盖的桶
+        int foodInView = gameWorld.countFoodsInViewport();
+
+        // 如果视野内食物太少，在视野附近生成新食物
+        if (foodInView < MIN_FOOD_IN_VIEWPORT) {
+            addFoodNearViewport();
+        }
+    }
+
+    // 在视野附近添加食物
+    private void addFoodNearViewport() {
+
+        // 在视野扩展区域内生成食物（视野周围的更大区域）
+        int expandedLeft = Math.max(0, gameWorld.getViewOffsetX() - 10);
+        int expandedTop = Math.max(0, gameWorld.getViewOffsetY() - 10);
+        int expandedRight = Math.min(gameWorld.getWorldMapCols(),
+                                    gameWorld.getViewOffsetX() + gameWorld.getGridCols() + 10);
+        int expandedBottom = Math.min(gameWorld.getWorldMapRows(),
+                                    gameWorld.getViewOffsetY() + gameWorld.getGridRows() + 10);
+
+        // 添加3个食物，视野附近已满时退回到整张地图
+        for (int i = 0; i < 3; i++) {
+            int cell = gameWorld.randomFreeCellNear(expandedLeft, expandedTop,
+                                                    expandedRight, expandedBottom, random.spawn());
+            if (cell < 0) {
+                cell = gameWorld.randomFreeCell(random.spawn());
+            }
+            if (cell < 0) break; // 地图已满
+
+            spawnFood(cell, rollFoodType(random.food(), 5, 10));
+        }
+    }
+
+    private void moveSnake(Snake snake, int newX, int newY) {
+        if (snake.getLength() == 0) return;
+
+        // 添加新头部
+        gameWorld.addSnakeHead(snake, newX, newY);
+
+        // 如果没有待增长的节数，移除尾部
+        if (!snake.isGrowing()) {
+            gameWorld.removeSnakeTail(snake);
+        } else {
+            // 减少一个待增长节数
+            if (snake.getGrowthPending() > 0) {
+                snake.decreaseGrowthPending();
+            } else {
+                snake.setGrowing(false);
+            }
+        }
+    }
+
+    /**
+     * 移动所有活着的蛇并处理碰撞。Bot先各自提议下一步（Bot很多时并行），
+     * 然后对所有蛇头做一次统一的碰撞判定：撞墙、撞到其他蛇的身体、两条蛇的蛇头进入同一格子都会死亡，
+     * 判定基于本帧开始时的占用网格，每条蛇只查询O(1)次。最后按顺序移动存活的蛇并吃食物。
+     * 自己的身体不参与碰撞。下标 0..n-1 是Bot，n是玩家。
+     */
+    private void updateSnakes() {
+        Snake mySnake = gameWorld.getMySnake();
+        List<Snake> otherSnakes = gameWorld.getOtherSnakes();
+        int botCount = otherSnakes != null ? otherSnakes.size() : 0;
+
+        // 第一阶段：各Bot独立做决策并提议下一步
+        if (otherSnakes != null) {
+            movePlanner.propose(otherSnakes, gameWorld);
+        }
+
+        // 第二阶段：在移动之前对所有蛇头做碰撞判定
+        collisions.begin(botCount + 1);
+        for (int i = 0; i < botCount; i++) {
+            Snake botSnake = otherSnakes.get(i);
+            if (isMoving(botSnake)) {
+                addHead(i, botSnake, movePlanner.getProposedHead(i));
+            }
+        }
+        if (isMoving(mySnake)) {
+            Direction direction = mySnake.getDirection();
+            addHead(botCount, mySnake, PackedPoint.pack(
+                mySnake.getHeadX() + direction.getDx(),
+                mySnake.getHeadY() + direction.getDy()));
+        }
+
+        // 第三阶段：按顺序处理死亡、移动和吃食物，保证结果确定
+        for (int i = 0; i < botCount; i++) {
+            Snake botSnake = otherSnakes.get(i);
+            if (!isMoving(botSnake)) continue;
+            if (collisions.isDead(i)) {
+                killBot(botSnake);
+            } else {
+                int head = movePlanner.getProposedHead(i);
+                moveSnake(botSnake, PackedPoint.x(head), PackedPoint.y(head));
+                checkFoodCollision(botSnake);
+            }
+        }
+        if (isMoving(mySnake)) {
+            if (collisions.isDead(botCount)) {
+                killPlayer(mySnake);
+            } else {
+                Direction direction = mySnake.getDirection();
+                moveSnake(mySnake, mySnake.getHeadX() + direction.getDx(), mySnake.getHeadY() + direction.getDy());
+                checkFoodCollision(mySnake);
+            }
+        }
+    }
+
+    private static boolean isMoving(Snake snake) {
+        return snake != null && snake.isAlive() && snake.getLength() > 0;
+    }
+
+    private void addHead(int index, Snake snake, int head) {
+        int x = PackedPoint.x(head);
+        int y = PackedPoint.y(head);
+        boolean blocked = isOutsideWorld(x, y) || gameWorld.hasOtherSnakeAt(x, y, snake);
+        collisions.addHead(index, head, blocked);
+    }
+
+    // 使用世界地图的边界检测
+    private boolean isOutsideWorld(int x, int y) {
+        return x < 0 || x >= gameWorld.getWorldMapCols() ||
+               y < 0 || y >= gameWorld.getWorldMapRows();
+    }
+
+    private void checkFoodCollision(Snake snake) {
+        if (snake.getLength() == 0) return;
+
+        // 通过占用网格直接查找蛇头所在格子的食物
+        Food eatenFood = gameWorld.getFoodAt(snake.getHeadX(), snake.getHeadY());
+
+        // 如果找到被吃掉的食物，处理它
+        if (eatenFood != null) {
+            // 移除被吃掉的食物
+            gameWorld.removeFood(eatenFood);
+
+            // 根据食物类型产生不同效果
+            switch (eatenFood.getType()) {
+                case APPLE:
+                    // 普通苹果：+10分，长度+1
+                    snake.setScore(snake.getScore() + eatenFood.getValue());
+                    snake.grow();
+                    break;
+
+                case GOOD_FOOD:
+                    // 星星：+20分，长度+2
+                    snake.setScore(snake.getScore() + eatenFood.getValue());
+                    snake.growByAmount(2);
+                    break;
+
+                case BAD_FOOD:
+                    // 骷髅头：-10分，长度-1
+                    snake.setScore(Math.max(0, snake.getScore() + eatenFood.getValue()));
+                    gameWorld.removeSnakeTail(snake);
+                    break;
+            }
+
+            foodPool.recycle(eatenFood);
+
+            // 在远处随机位置生成一个新食物来替代被吃掉的食物
+            addRandomFood();
+        }
+    }
+
+    // 添加单个随机食物
+    private void addRandomFood() {
+        int cell = gameWorld.randomFreeCell(random.spawn());
+        if (cell >= 0) {
+            spawnFood(cell, rollFoodType(random.food(), 5, 10));
+        }
+    }
+
+    // 按百分比随机食物类型：goodPercent% 好食物，badPercent% 坏食物，其余为苹果
+    private static Food.FoodType rollFoodType(SplittableRandom random, int goodPercent, int badPercent) {
+        int typeRoll = random.nextInt(100);
+        if (typeRoll < goodPercent) {
+            return Food.FoodType.GOOD_FOOD;
+        } else if (typeRoll < goodPercent + badPercent) {
+            return Food.FoodType.BAD_FOOD;
+        }
+        return Food.FoodType.APPLE;
+    }
+
+    // 旧世界的食物回收到对象池，供新的一局复用
+    private void recycleFoods(GameWorld world) {
+        List<Food> foods = world.getFoods();
+        if (foods == null) return;
+        for (int i = 0; i < foods.size(); i++) {
+            foodPool.recycle(foods.get(i));
+        }
+    }
+
+    // 在空闲格子（压缩坐标）上放置食物
+    private void spawnFood(int cell, Food.FoodType type) {
+        Food food = foodPool.obtain(type);
+        food.setPosition(PackedPoint.x(cell), PackedPoint.y(cell));
+        gameWorld.addFood(food);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.snakegame.engine;
+
+import com.example.snakegame.data.model.GameWorld;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 在独立线程中以固定步长推进 {@link GameEngine} 的模拟循环。
+ * 用累加器记录流逝的时间，每攒够一个步长就tick一次，所以tick的间隔不受单次tick耗时和UI卡顿的影响；
+ * 落后时一次最多追赶 MAX_CATCH_UP_TICKS 帧，再落后就丢弃积压的时间，避免越追越慢。
+ * GameWorld只由模拟线程访问；每轮tick之后把世界复制成快照发布到 {@link #getSnapshots()}（主线程的界面）
+ * 和 {@link #getRenderSnapshots()}（渲染线程），每个缓冲区只有一个读取线程，其他线程只读取快照，不需要加锁。
+ * tick抛出异常时循环停止，状态回到未运行，之后可以重新 {@link #start()}。
+ */
+public final class GameLoop {
+
+    /**
+     * 循环事件回调，在模拟线程中调用
+     */
+    public interface GameLoopListener {
+        // 本轮完成了tickCount次tick，新的快照已经发布
+        void onTicksCompleted(int tickCount);
+
+        // 模拟中抛出了异常，循环已经停止
+        void onLoopFailed(RuntimeException error);
+    }
+
+    public static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final GameEngine engine;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+    private final SnapshotBuffer renderSnapshots = new SnapshotBuffer();
+    private GameLoopListener listener;
+    private volatile long tickNanos = 100_000_000L;
+    private volatile boolean running;
+    private Thread thread;
+
+    public GameLoop(GameEngine engine) {
+        this.engine = engine;
+    }
+
+    public void setListener(GameLoopListener listener) {
+        this.listener = listener;
+    }
+
+    // 修改tick的间隔（毫秒），运行中修改会在下一轮生效
+    public void setTickInterval(long tickMillis) {
+        this.tickNanos = Math.max(1, tickMillis) * 1_000_000L;
+    }
+
+    // 模拟结果的快照，由主线程读取（分数、排行榜等界面）
+    public SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    // 供渲染线程读取的快照
+    public SnapshotBuffer getRenderSnapshots() {
+        return renderSnapshots;
+    }
+
+    /**
+     * 在调用线程中立即发布一次快照，只能在循环没有运行时调用（例如新的一局创建之后）
+     */
+    public synchronized void publishSnapshot() {
+        if (thread != null) return;
+        publish();
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runLoop();
+            }
+        }, "GameLoop");
+        thread.start();
+    }
+
+    /**
+     * 停止循环并等待模拟线程退出（在模拟线程内部调用时不等待）
+     */
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            if (thread == null) return;
+            running = false;
+            stopping = thread;
+            thread = null;
+        }
+        stopping.interrupt();
+        if (stopping != Thread.currentThread()) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void publish() {
+        GameWorld world = engine.getGameWorld();
+        snapshots.publish(world);
+        renderSnapshots.publish(world);
+    }
+
+    private void runLoop() {
+        RuntimeException failure = null;
+        try {
+            loop();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            // 不论正常停止还是出错都回到未运行状态；已经被stop()或新一轮start()接管时不修改
+            synchronized (this) {
+                if (thread == Thread.currentThread()) {
+                    running = false;
+                    thread = null;
+                }
+            }
+        }
+        if (failure != null) {
+            GameLoopListener listener = this.listener;
+            if (listener == null) {
+                // 没有人处理时交给线程的未捕获异常处理器
+                throw failure;
+            }
+            listener.onLoopFailed(failure);
+        }
+    }
+
+    private void loop() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            long step = tickNanos;
+            int ticks = 0;
+            while (accumulator >= step && ticks < MAX_CATCH_UP_TICKS && running) {
+                engine.tick();
+                accumulator -= step;
+                ticks++;
+            }
+            // 追赶次数用完仍然落后，丢弃积压的时间
+            if (accumulator >= step) {
+                accumulator %= step;
+            }
+
+            if (ticks > 0) {
+                publish();
+                if (listener != null) {
+                    listener.onTicksCompleted(ticks);
+                }
+            }
+
+            // 睡到下一个步长到来
+            long remaining = step - accumulator - (System.nanoTime() - previous);
+            if (remaining > 0 && running) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.snakegame.engine;
+
+import com.example.snakegame.data.model.Direction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个玩家的方向输入队列：有界的单生产者单消费者环形缓冲区，无锁。
+ * 生产者（UI线程、网络线程或回放线程，每个玩家只能有一个）调用 {@link #offer(Direction)}，
+ * 消费者是模拟线程，在每次tick开始时取出输入。
+ * 一帧之内连续按下的多个方向不会互相覆盖，而是在之后的tick中依次生效。
+ */
+public final class InputQueue {
+    public static final int CAPACITY = 16;  // 必须是2的幂
+    private static final int MASK = CAPACITY - 1;
+
+    private final byte[] buffer = new byte[CAPACITY];
+    private final AtomicInteger head = new AtomicInteger();  // 下一个要读取的位置，只由消费者写
+    private final AtomicInteger tail = new AtomicInteger();  // 下一个要写入的位置，只由生产者写
+
+    /**
+     * 加入一个方向输入（生产者线程调用）
+     *
+     * @return 队列已满时返回false
+     */
+    public boolean offer(Direction direction) {
+        if (direction == null) return false;
+        int currentTail = tail.get();
+        if (currentTail - head.get() == CAPACITY) {
+            return false;
+        }
+        buffer[currentTail & MASK] = direction.getCode();
+        // 先写数据再发布tail，消费者读到新的tail时一定能看到数据
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    // 取出下一个方向，队列为空时返回null（消费者线程调用）
+    Direction poll() {
+        int currentHead = head.get();
+        if (currentHead == tail.get()) {
+            return null;
+        }
+        Direction direction = Direction.fromCode(buffer[currentHead & MASK]);
+        head.lazySet(currentHead + 1);
+        return direction;
+    }
+
+    // 丢弃所有未处理的输入（消费者线程调用）
+    void clear() {
+        head.lazySet(tail.get());
+    }
+}
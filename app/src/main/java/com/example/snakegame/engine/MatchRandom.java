@@ -0,0 +1,48 @@
+package com.example.snakegame.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * 一局游戏的随机数服务。由一个种子派生出互相独立的几条随机流：
+ * Bot决策、食物类型、出生/生成位置，每条Bot还可以再分出自己的流。
+ * 同样的种子加上同样的输入序列总能得到同样的世界，可用于回放、模糊测试和基准测试。
+ * SplittableRandom不是线程安全的，每条流只能在一个线程中使用。
+ */
+public final class MatchRandom {
+    private final long seed;
+    private final SplittableRandom bots;
+    private final SplittableRandom food;
+    private final SplittableRandom spawn;
+
+    public MatchRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        this.bots = root.split();
+        this.food = root.split();
+        this.spawn = root.split();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Bot决策和Bot属性
+    public SplittableRandom bots() {
+        return bots;
+    }
+
+    // 食物类型
+    public SplittableRandom food() {
+        return food;
+    }
+
+    // 蛇的出生位置和食物的生成位置
+    public SplittableRandom spawn() {
+        return spawn;
+    }
+
+    // 为一条Bot分出独立的决策流，按Bot加入的顺序调用
+    public SplittableRandom splitBot() {
+        return bots.split();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.snakegame.engine;
+
+import com.example.snakegame.data.model.Direction;
+import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.OccupancyGrid;
+import com.example.snakegame.data.model.PackedPoint;
+import com.example.snakegame.data.model.Snake;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * tick的“提议移动”阶段：为每条Bot做AI决策（见BotBrain）并算出下一步的蛇头位置。
+ * 每条Bot只读世界状态、只写自己的状态，并使用自己的随机流（见MatchRandom），所以Bot数量较多时
+ * 可以在ForkJoin线程池中并行执行，结果与串行执行完全相同。
+ * 真正的移动、碰撞和吃食物由GameEngine随后在单线程中按列表顺序处理。
+ */
+final class MovePlanner {
+    // Bot数量达到该值时才并行，少量Bot时线程调度的开销大于收益
+    static final int PARALLEL_THRESHOLD = 64;
+    private static final int BATCH_SIZE = 16;
+
+    private final ForkJoinPool pool;
+    private MatchRandom matchRandom = new MatchRandom(0);
+    private SplittableRandom[] randoms = new SplittableRandom[0];
+    private BotBrain[] brains = new BotBrain[0];
+    private int[] proposedHeads = new int[0];
+    private List<Snake> snakes;
+    private GameWorld world;
+    private OccupancyGrid grid;
+
+    MovePlanner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    MovePlanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // 新的一局：之后加入的Bot按顺序从matchRandom分出各自的决策流
+    void reset(MatchRandom matchRandom) {
+        this.matchRandom = matchRandom;
+        this.randoms = new SplittableRandom[0];
+        this.brains = new BotBrain[0];
+    }
+
+    /**
+     * 为列表中的每条Bot提议下一步移动，结果通过 {@link #getProposedHead(int)} 读取
+     */
+    void propose(List<Snake> bots, GameWorld gameWorld) {
+        int count = bots.size();
+        ensureCapacity(count);
+        snakes = bots;
+        world = gameWorld;
+        // 在进入并行阶段之前取得占用网格，避免多个线程同时触发重建
+        grid = gameWorld.getOccupancyGrid();
+        if (count >= PARALLEL_THRESHOLD) {
+            pool.invoke(new ProposeTask(this, 0, count));
+        } else {
+            for (int i = 0; i < count; i++) {
+                proposeMove(i);
+            }
+        }
+        snakes = null;
+        world = null;
+        grid = null;
+    }
+
+    // 第i条Bot提议的蛇头位置（压缩坐标，见PackedPoint）
+    int getProposedHead(int index) {
+        return proposedHeads[index];
+    }
+
+    private void proposeMove(int index) {
+        Snake botSnake = snakes.get(index);
+        if (!botSnake.isAlive()) return;
+
+        if (botSnake.getLength() == 0) return;
+
+        Direction direction = brains[index].decide(botSnake, world, grid, randoms[index]);
+        if (!direction.isOpposite(botSnake.getDirection())) {
+            botSnake.setDirection(direction);
+        }
+        direction = botSnake.getDirection();
+        proposedHeads[index] = PackedPoint.pack(
+            botSnake.getHeadX() + direction.getDx(),
+            botSnake.getHeadY() + direction.getDy());
+    }
+
+    private void ensureCapacity(int count) {
+        if (randoms.length < count) {
+            SplittableRandom[] grownRandoms = new SplittableRandom[count];
+            System.arraycopy(randoms, 0, grownRandoms, 0, randoms.length);
+            for (int i = randoms.length; i < count; i++) {
+                grownRandoms[i] = matchRandom.splitBot();
+            }
+            randoms = grownRandoms;
+        }
+        if (brains.length < count) {
+            BotBrain[] grownBrains = new BotBrain[count];
+            System.arraycopy(brains, 0, grownBrains, 0, brains.length);
+            for (int i = brains.length; i < count; i++) {
+                grownBrains[i] = new BotBrain();
+            }
+            brains = grownBrains;
+        }
+        if (proposedHeads.length < count) {
+            proposedHeads = new int[count];
+        }
+    }
+
+    // 把Bot区间不断二分，直到每段不超过BATCH_SIZE
+    private static final class ProposeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MovePlanner planner;
+        private final int from;
+        private final int to;
+
+        ProposeTask(MovePlanner planner, int from, int to) {
+            this.planner = planner;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    planner.proposeMove(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ProposeTask(planner, from, mid), new ProposeTask(planner, mid, to));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.snakegame.engine;
+
+import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.WorldSnapshot;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 模拟线程与读取方（UI或渲染线程）之间交换 {@link WorldSnapshot} 的缓冲区，无锁。
+ * 写入方在自己独占的后台快照中写入，写完后与“就绪”快照原子交换；
+ * 读取方在就绪快照比自己手中的新时再与之交换。两边永远不会同时接触同一个快照，
+ * 所以除了前台和后台两个快照之外还需要一个就绪位置上的快照，共三个。
+ * 只支持一个写入线程和一个读取线程。
+ */
+public final class SnapshotBuffer {
+    private WorldSnapshot back = new WorldSnapshot();   // 只由写入方访问
+    private final AtomicReference<WorldSnapshot> ready = new AtomicReference<>(new WorldSnapshot());
+    private WorldSnapshot front = new WorldSnapshot();  // 只由读取方访问
+    private long nextVersion = 1;
+
+    /**
+     * 复制世界的当前状态并发布（写入线程调用）
+     */
+    public void publish(GameWorld world) {
+        back.capture(world, nextVersion++);
+        back = ready.getAndSet(back);
+    }
+
+    /**
+     * 取得最新发布的快照（读取线程调用）。
+     * 返回的快照在同一线程下一次调用本方法之前保持不变
+     */
+    public WorldSnapshot acquire() {
+        if (ready.get().getVersion() > front.getVersion()) {
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.snakegame.network;
 
+import com.example.snakegame.data.model.Direction;
+import com.example.snakegame.data.model.Snake;
+import com.example.snakegame.data.model.SnakeBodyCodec;
 import java.io.Serializable;
 
 public class NetworkMessage implements Serializable {
@@ -44,4 +47,27 @@ public class NetworkMessage implements Serializable {
     
     public long getTimestamp() { return timestamp; }
     public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    // 玩家移动消息：方向只用一个字节的编码传输，不再发送方向字符串
+    public static NetworkMessage createPlayerMove(String playerId, String playerNickname, Direction direction) {
+        return new NetworkMessage(MessageType.PLAYER_MOVE, playerId, playerNickname, direction.getCode());
+    }
+
+    // 解析玩家移动消息中的方向，不是移动消息或编码非法时返回null
+    public Direction getMoveDirection() {
+        if (type != MessageType.PLAYER_MOVE || !(data instanceof Byte)) return null;
+        return Direction.fromCode((Byte) data);
+    }
+
+    // 游戏状态更新：蛇身用游程编码传输，几千节、拐弯不多的蛇只需要几百字节；
+    // 不能游程编码的蛇身逐节传输（见SnakeBodyCodec），不会丢失
+    public static NetworkMessage createSnakeUpdate(String playerId, String playerNickname, Snake snake) {
+        return new NetworkMessage(MessageType.GAME_UPDATE, playerId, playerNickname, SnakeBodyCodec.encode(snake));
+    }
+
+    // 解析游戏状态更新中的蛇身，返回每节的压缩坐标（蛇头在前），不是更新消息或数据无效时返回null
+    public int[] getSnakeBody() {
+        if (type != MessageType.GAME_UPDATE || !(data instanceof byte[])) return null;
+        return SnakeBodyCodec.decode((byte[]) data);
+    }
 }
@@ -1,7 +1,9 @@
 package com.example.snakegame.presentation.contract;
 
-import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.Direction;
 import com.example.snakegame.data.model.Player;
+import com.example.snakegame.data.model.WorldSnapshot;
+import com.example.snakegame.engine.SnapshotBuffer;
 import java.util.List;
 
 public interface GameContract {
@@ -10,7 +12,9 @@ public interface GameContract {
         void showLoading();
         void hideLoading();
         void showError(String message);
-        void onGameWorldUpdated(GameWorld gameWorld);
+        // 分数、排行榜等界面的更新，在主线程中调用；游戏画面由渲染线程直接读取attachRenderSnapshots的缓冲区
+        void onWorldSnapshotUpdated(WorldSnapshot snapshot);
+        void attachRenderSnapshots(SnapshotBuffer snapshots);
         void onGameStarted();
         void onGameEnded();
         void showChatMessage(String playerName, String message);
@@ -27,7 +31,7 @@ public interface GameContract {
         void detachView();
         void initializeGame(long playerId, String nickname, String color);
         void initializeTimedScoreMode(long playerId, String nickname, String color);
-        void handlePlayerMove(String direction);
+        void handlePlayerMove(Direction direction);
         void sendChatMessage(String message);
         void startGame();
         void pauseGame();
@@ -0,0 +1,70 @@
+package com.example.snakegame.ui.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * 预先合成好的静态图层。内容只在失效后画一次到位图中，之后每帧只贴一次图。
+ * 位图只覆盖图层自己的范围，范围的大小不变时重画复用原来的位图。只在渲染线程中使用。
+ */
+final class CachedLayer {
+    private Bitmap bitmap;
+    private Canvas layerCanvas;
+    private final Rect bounds = new Rect();
+    private boolean valid;
+
+    boolean isValid() {
+        return valid && bitmap != null;
+    }
+
+    // 内容变化时调用，下一次绘制前需要重新录制
+    void invalidate() {
+        valid = false;
+    }
+
+    // 图层在视图中的范围
+    Rect getBounds() {
+        return bounds;
+    }
+
+    /**
+     * 开始重画图层，返回的画布已经平移，可以直接按视图坐标绘制；画完后调用 {@link #endRecording()}
+     */
+    Canvas beginRecording(int left, int top, int right, int bottom) {
+        int width = Math.max(1, right - left);
+        int height = Math.max(1, bottom - top);
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            release();
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            layerCanvas = new Canvas(bitmap);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        bounds.set(left, top, left + width, top + height);
+        layerCanvas.save();
+        layerCanvas.translate(-left, -top);
+        return layerCanvas;
+    }
+
+    void endRecording() {
+        layerCanvas.restore();
+        valid = true;
+    }
+
+    void draw(Canvas canvas, Paint paint) {
+        canvas.drawBitmap(bitmap, bounds.left, bounds.top, paint);
+    }
+
+    // 释放位图，之后需要重新录制
+    void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            layerCanvas = null;
+        }
+        valid = false;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.snakegame.ui.view;
+
+import android.graphics.Rect;
+import java.util.Arrays;
+
+/**
+ * 比较相邻两帧的画面内容，找出需要重画的区域，配合 lockCanvas(Rect) 只重画变化的部分。
+ * 每帧记录两类内容：每个格子中按顺序画了哪些精灵（混合成一个签名），
+ * 以及不按格子对齐的覆盖物（昵称、聊天气泡、快捷语句图层）的范围和编码。
+ * 与上一帧相比签名不同的格子、出现或消失的覆盖物合并成一个矩形；
+ * 视野位置或布局与上一帧不同时上一帧的记录作废，需要整屏重画。
+ * 格子范围在视野外多留 {@link #MARGIN} 格，覆盖居中留下的边缘。只在渲染线程中使用。
+ */
+final class DirtyRegionTracker {
+    private static final int MARGIN = 2;
+    private static final int OVERLAY_FLOATS = 4;
+    // 抗锯齿和阴影可能画到范围外的像素
+    private static final int BLEED = 2;
+
+    // 布局：格子数、格子大小、居中偏移和视野位置
+    private int cols = -1;
+    private int rows = -1;
+    private int cellSize;
+    private int offsetX;
+    private int offsetY;
+    private int viewOffsetX;
+    private int viewOffsetY;
+    private boolean hasPrevious;
+
+    // 这一帧和上一帧的格子签名，0表示空格子
+    private int stride;
+    private int[] cells = new int[0];
+    private int[] previousCells = new int[0];
+
+    // 这一帧和上一帧的覆盖物：范围（left, top, right, bottom）和编码
+    private float[] overlayBounds = new float[8 * OVERLAY_FLOATS];
+    private int[] overlayKeys = new int[8];
+    private int overlayCount;
+    private float[] previousOverlayBounds = new float[8 * OVERLAY_FLOATS];
+    private int[] previousOverlayKeys = new int[8];
+    private int previousOverlayCount;
+
+    // 下一帧整屏重画
+    void invalidate() {
+        hasPrevious = false;
+    }
+
+    /**
+     * 开始记录一帧。布局或视野位置与上一帧不同时，上一帧的记录作废
+     */
+    void beginFrame(int cols, int rows, int cellSize, int offsetX, int offsetY, int viewOffsetX, int viewOffsetY) {
+        if (cols != this.cols || rows != this.rows) {
+            this.cols = cols;
+            this.rows = rows;
+            stride = cols + MARGIN * 2;
+            cells = new int[stride * (rows + MARGIN * 2)];
+            previousCells = new int[cells.length];
+            hasPrevious = false;
+        } else {
+            int[] swap = previousCells;
+            previousCells = cells;
+            cells = swap;
+            Arrays.fill(cells, 0);
+        }
+        if (cellSize != this.cellSize || offsetX != this.offsetX || offsetY != this.offsetY
+                || viewOffsetX != this.viewOffsetX || viewOffsetY != this.viewOffsetY) {
+            this.cellSize = cellSize;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.viewOffsetX = viewOffsetX;
+            this.viewOffsetY = viewOffsetY;
+            hasPrevious = false;
+        }
+
+        float[] swapBounds = previousOverlayBounds;
+        previousOverlayBounds = overlayBounds;
+        overlayBounds = swapBounds;
+        int[] swapKeys = previousOverlayKeys;
+        previousOverlayKeys = overlayKeys;
+        overlayKeys = swapKeys;
+        previousOverlayCount = overlayCount;
+        overlayCount = 0;
+    }
+
+    /**
+     * 记录在视野坐标(viewX, viewY)的格子中画了编码为key的精灵，超出范围的格子不在屏幕上，忽略
+     */
+    void markCell(int viewX, int viewY, int key) {
+        int x = viewX + MARGIN;
+        int y = viewY + MARGIN;
+        if (x < 0 || x >= stride || y < 0 || y >= rows + MARGIN * 2) return;
+        int index = y * stride + x;
+        cells[index] = cells[index] * 31 + key;
+    }
+
+    /**
+     * 记录一个覆盖物，范围是像素坐标，编码相同且范围相同的覆盖物视为没有变化
+     */
+    void markOverlay(float left, float top, float right, float bottom, int key) {
+        if (overlayCount == overlayKeys.length) {
+            overlayKeys = Arrays.copyOf(overlayKeys, overlayCount * 2);
+            overlayBounds = Arrays.copyOf(overlayBounds, overlayCount * 2 * OVERLAY_FLOATS);
+        }
+        int base = overlayCount * OVERLAY_FLOATS;
+        overlayBounds[base] = left;
+        overlayBounds[base + 1] = top;
+        overlayBounds[base + 2] = right;
+        overlayBounds[base + 3] = bottom;
+        overlayKeys[overlayCount++] = key;
+    }
+
+    /**
+     * 结束记录并与上一帧比较。返回false表示没有可比较的上一帧，需要整屏重画；
+     * 返回true时dirty为需要重画的像素范围，为空表示画面没有变化
+     */
+    boolean computeDirty(Rect dirty) {
+        if (!hasPrevious) {
+            hasPrevious = true;
+            return false;
+        }
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int height = rows + MARGIN * 2;
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * stride;
+            for (int x = 0; x < stride; x++) {
+                if (cells[rowStart + x] != previousCells[rowStart + x]) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        if (minX <= maxX) {
+            left = offsetX + (minX - MARGIN) * cellSize;
+            top = offsetY + (minY - MARGIN) * cellSize;
+            right = offsetX + (maxX - MARGIN + 1) * cellSize;
+            bottom = offsetY + (maxY - MARGIN + 1) * cellSize;
+        }
+        // 只在一帧中出现的覆盖物，新旧两个位置都要重画
+        for (int i = 0; i < overlayCount; i++) {
+            if (!contains(previousOverlayBounds, previousOverlayKeys, previousOverlayCount,
+                    overlayBounds, overlayKeys[i], i)) {
+                int base = i * OVERLAY_FLOATS;
+                left = Math.min(left, overlayBounds[base]);
+                top = Math.min(top, overlayBounds[base + 1]);
+                right = Math.max(right, overlayBounds[base + 2]);
+                bottom = Math.max(bottom, overlayBounds[base + 3]);
+            }
+        }
+        for (int i = 0; i < previousOverlayCount; i++) {
+            if (!contains(overlayBounds, overlayKeys, overlayCount,
+                    previousOverlayBounds, previousOverlayKeys[i], i)) {
+                int base = i * OVERLAY_FLOATS;
+                left = Math.min(left, previousOverlayBounds[base]);
+                top = Math.min(top, previousOverlayBounds[base + 1]);
+                right = Math.max(right, previousOverlayBounds[base + 2]);
+                bottom = Math.max(bottom, previousOverlayBounds[base + 3]);
+            }
+        }
+
+        if (left > right) {
+            dirty.setEmpty();
+        } else {
+            dirty.set((int) Math.floor(left) - BLEED, (int) Math.floor(top) - BLEED,
+                      (int) Math.ceil(right) + BLEED, (int) Math.ceil(bottom) + BLEED);
+        }
+        return true;
+    }
+
+    // keys/bounds中的前count个覆盖物里是否有与other中第index个完全相同的
+    private static boolean contains(float[] bounds, int[] keys, int count, float[] otherBounds, int key, int index) {
+        int otherBase = index * OVERLAY_FLOATS;
+        for (int i = 0; i < count; i++) {
+            int base = i * OVERLAY_FLOATS;
+            if (keys[i] == key
+                    && bounds[base] == otherBounds[otherBase]
+                    && bounds[base + 1] == otherBounds[otherBase + 1]
+                    && bounds[base + 2] == otherBounds[otherBase + 2]
+                    && bounds[base + 3] == otherBounds[otherBase + 3]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.snakegame.ui.view;
+
+import android.os.Debug;
+import android.util.Log;
+
+/**
+ * 统计渲染线程每帧绘制时分配的对象数，检查稳定运行时绘制是否产生垃圾。
+ * 开始的若干帧（布局、画笔、图集和图层第一次创建）不计入；Surface尺寸变化后重新预热。
+ * 之后分配了对象的帧记为违规，每隔一段时间输出一次统计，有违规时输出警告。
+ * 快捷语句图层重画、图集追加新颜色等偶尔发生的分配也会计入，所以只统计不中断绘制。
+ * 默认的计数来自 {@link Debug} 的分配统计，只在可调试的构建中启用；未启用时所有方法都不做任何事。
+ */
+final class FrameAllocationCounter {
+    private static final String TAG = "FrameAllocationCounter";
+    static final int WARM_UP_FRAMES = 120;              // 约2秒的预热
+    private static final int REPORT_INTERVAL = 600;     // 约10秒输出一次
+
+    /**
+     * 当前线程的分配计数
+     */
+    interface AllocationSource {
+        void start();
+        void stop();
+        void reset();
+        int count();
+    }
+
+    // Debug的分配计数已标为过时，但仍是不依赖工具的唯一计数方式
+    @SuppressWarnings("deprecation")
+    private static final AllocationSource DEBUG_SOURCE = new AllocationSource() {
+        @Override
+        public void start() {
+            Debug.startAllocCounting();
+        }
+
+        @Override
+        public void stop() {
+            Debug.stopAllocCounting();
+        }
+
+        @Override
+        public void reset() {
+            Debug.resetThreadAllocCount();
+        }
+
+        @Override
+        public int count() {
+            return Debug.getThreadAllocCount();
+        }
+    };
+
+    private final AllocationSource source;      // 未启用时为null
+    private volatile boolean counting;  // 在主线程中开始和停止，渲染线程读取
+    private volatile boolean warmUpRequested;   // 主线程请求重新预热，渲染线程在下一帧处理
+    private int frames;
+    private int lastFrameAllocations;
+    // 预热之后分配了对象的帧数和这些帧分配的对象总数，输出统计后清零
+    private int violationFrames;
+    private int violationAllocations;
+
+    FrameAllocationCounter(boolean enabled) {
+        this(enabled ? DEBUG_SOURCE : null);
+    }
+
+    FrameAllocationCounter(AllocationSource source) {
+        this.source = source;
+    }
+
+    // 在渲染线程开始绘制之前调用
+    void start() {
+        if (source == null || counting) return;
+        counting = true;
+        warmUpRequested = false;
+        frames = 0;
+        lastFrameAllocations = 0;
+        violationFrames = 0;
+        violationAllocations = 0;
+        source.start();
+    }
+
+    void stop() {
+        if (!counting) return;
+        counting = false;
+        source.stop();
+    }
+
+    // Surface尺寸变化后调用，布局和位图会重新创建，下一帧开始重新预热
+    void restartWarmUp() {
+        warmUpRequested = true;
+    }
+
+    // 一帧绘制开始
+    void beginFrame() {
+        if (!counting) return;
+        source.reset();
+    }
+
+    /**
+     * 一帧绘制结束，先读取计数，之后的统计和日志不计入这一帧。
+     * 预热之后这一帧分配了对象时记为违规
+     */
+    void endFrame() {
+        if (!counting) return;
+        lastFrameAllocations = source.count();
+        if (warmUpRequested) {
+            warmUpRequested = false;
+            frames = 0;
+        }
+        frames++;
+        if (frames <= WARM_UP_FRAMES) return;
+
+        if (lastFrameAllocations > 0) {
+            violationFrames++;
+            violationAllocations += lastFrameAllocations;
+        }
+        int measured = frames - WARM_UP_FRAMES;
+        if (measured % REPORT_INTERVAL == 0) {
+            if (violationFrames > 0) {
+                Log.w(TAG, REPORT_INTERVAL + " 帧中有 " + violationFrames + " 帧绘制分配了对象，共 "
+                        + violationAllocations + " 个");
+            } else {
+                Log.d(TAG, REPORT_INTERVAL + " 帧没有分配对象");
+            }
+            violationFrames = 0;
+            violationAllocations = 0;
+        }
+    }
+
+    // 最近一帧绘制时分配的对象数
+    int getLastFrameAllocations() {
+        return lastFrameAllocations;
+    }
+
+    // 上次输出统计之后，预热之后分配了对象的帧数
+    int getViolationFrames() {
+        return violationFrames;
+    }
+}
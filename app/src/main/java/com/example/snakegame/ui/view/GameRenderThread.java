@@ -0,0 +1,110 @@
+package com.example.snakegame.ui.view;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.Choreographer;
+
+/**
+ * 游戏画面的渲染线程。线程上运行自己的Looper，由 {@link Choreographer} 在每次垂直同步时回调，
+ * 绘制不再占用主线程，也不再跟随模拟的tick。
+ * 回调比预定的帧时间晚了一帧以上时跳过这一帧的绘制，只在下一帧画最新的状态，不会越积越多；
+ * 不会连续跳过两帧，设备一直跟不上时仍然每隔一帧画一次。
+ */
+final class GameRenderThread extends HandlerThread implements Choreographer.FrameCallback {
+
+    /**
+     * 每帧的绘制回调，在渲染线程中调用
+     */
+    interface FrameRenderer {
+        void renderFrame(long frameTimeNanos);
+    }
+
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16_666_667L;
+
+    private final FrameRenderer renderer;
+    private volatile long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private Handler handler;
+    private Choreographer choreographer;
+    private boolean rendering;          // 只在渲染线程中访问
+    private int skippedFrames;
+    private boolean skippedLastFrame;
+
+    private final Runnable startRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (rendering) return;
+            rendering = true;
+            choreographer.postFrameCallback(GameRenderThread.this);
+        }
+    };
+
+    private final Runnable stopRunnable = new Runnable() {
+        @Override
+        public void run() {
+            rendering = false;
+            choreographer.removeFrameCallback(GameRenderThread.this);
+        }
+    };
+
+    GameRenderThread(FrameRenderer renderer) {
+        super("GameRender", Process.THREAD_PRIORITY_DISPLAY);
+        this.renderer = renderer;
+    }
+
+    @Override
+    protected void onLooperPrepared() {
+        // Choreographer属于创建它的线程，必须在渲染线程上获取
+        choreographer = Choreographer.getInstance();
+    }
+
+    // 根据屏幕刷新率设置帧间隔，用于判断一帧是否已经来不及
+    void setRefreshRate(float refreshRate) {
+        if (refreshRate > 0) {
+            frameIntervalNanos = (long) (1_000_000_000L / refreshRate);
+        }
+    }
+
+    // 开始按垂直同步绘制，线程启动之后才能调用
+    void startRendering() {
+        obtainHandler().post(startRunnable);
+    }
+
+    void stopRendering() {
+        obtainHandler().post(stopRunnable);
+    }
+
+    // 停止绘制并退出线程（已经排队的回调执行完才退出）
+    void shutdown() {
+        stopRendering();
+        quitSafely();
+    }
+
+    // 因为来不及而跳过的帧数，只在渲染线程中读取
+    int getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!rendering) return;
+        // 先预约下一帧，绘制的耗时不会推迟下一次回调
+        choreographer.postFrameCallback(this);
+
+        long lateness = System.nanoTime() - frameTimeNanos;
+        if (lateness > frameIntervalNanos && !skippedLastFrame) {
+            skippedFrames++;
+            skippedLastFrame = true;
+            return;
+        }
+        skippedLastFrame = false;
+        renderer.renderFrame(frameTimeNanos);
+    }
+
+    private synchronized Handler obtainHandler() {
+        if (handler == null) {
+            handler = new Handler(getLooper());
+        }
+        return handler;
+    }
+}
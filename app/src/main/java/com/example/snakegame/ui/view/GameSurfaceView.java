@@ -1,40 +1,73 @@
 package com.example.snakegame.ui.view;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Path;
+import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
-import com.example.snakegame.data.model.GameWorld;
-import com.example.snakegame.data.model.Snake;
+import com.example.snakegame.data.model.Direction;
 import com.example.snakegame.data.model.Food;
+import com.example.snakegame.data.model.PackedPoint;
 import com.example.snakegame.data.model.Point;
-import java.util.List;
+import com.example.snakegame.data.model.WorldSnapshot;
+import com.example.snakegame.engine.SnapshotBuffer;
 
+/**
+ * 游戏画面。绘制在独立的渲染线程（{@link GameRenderThread}）中按屏幕刷新率进行，
+ * 每帧从 {@link #setSnapshotSource} 设置的缓冲区取最新的快照，快照没有变化时不重画。
+ * 视野位置不变时（暂停、旁观）由 {@link DirtyRegionTracker} 找出变化的区域，只锁定并重画这一部分。
+ * 除了标注的字段之外，绘制用到的状态只在渲染线程中访问。
+ */
 public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callback {
     
     private SurfaceHolder surfaceHolder;
-    private Paint paint;
-    private GameWorld gameWorld;
+    // 绘制用的Paint、Path和Shader，只在渲染线程中使用
+    private final RenderResources resources = new RenderResources();
+    private final Paint paint = resources.paint;
+    // 当前绘制的世界快照，只读
+    private WorldSnapshot snapshot;
     
     // 移除图片资源，使用代码绘制
     
     // 游戏区域配置
-    private int gridCols; // 列数
-    private int gridRows; // 行数
+    private volatile int gridCols; // 列数（主线程读取）
+    private volatile int gridRows; // 行数（主线程读取）
     private int cellSize; // 每个格子的大小（方形）
     private int offsetX, offsetY; // 居中偏移
 
-    // 在GameSurfaceView中添加缓存机制
-    private GameWorld lastGameWorld;
-    private boolean needsRedraw = true;
+    // 渲染线程和快照来源
+    private GameRenderThread renderThread;     // 只在主线程中访问
+    private FrameAllocationCounter allocationCounter; // 随渲染线程创建，在线程启动前赋值
+    private volatile SnapshotBuffer snapshotSource;
+    private long drawnVersion = -1;            // 上一次绘制的快照版本
+    private ChatBubble drawnBubble;            // 上一次绘制时画的聊天气泡，没有时为null
+    private boolean drawnPanel;                // 上一次绘制时是否画了快捷语句面板
+    private volatile boolean layoutChanged = true; // Surface或快照来源变化，下一帧整屏重画
+    // 与上一帧比较得到的重画区域，画面变化很少时（暂停、旁观时视野不动）只重画这一部分
+    private final DirtyRegionTracker dirtyRegion = new DirtyRegionTracker();
+    private final Rect dirtyRect = new Rect();
+    private final Rect hudBounds = new Rect();
+    private boolean hudShowsPanel;             // 快捷语句图层中是否画了面板
+    private float bubbleX, bubbleY;            // 聊天气泡底边中点，由locateChatBubble计算
+    private volatile boolean needsRedraw = true;
+    private volatile boolean gameRunning;      // 最新快照中游戏是否在运行，供触摸处理使用
+    // Surface销毁时等待正在进行的绘制结束
+    private final Object surfaceLock = new Object();
+    private boolean surfaceReady;
+    private final GameRenderThread.FrameRenderer frameRenderer = new GameRenderThread.FrameRenderer() {
+        @Override
+        public void renderFrame(long frameTimeNanos) {
+            drawLatestSnapshot();
+        }
+    };
     
-    // 快捷语句功能相关
-    private boolean showQuickMessages = false; // 是否显示快捷语句面板
+    // 快捷语句功能相关（在主线程中修改，渲染线程读取）
+    private volatile boolean showQuickMessages = false; // 是否显示快捷语句面板
     private String[] quickMessages = {
         "菜！就多练", 
         "抱歉", 
@@ -43,8 +76,7 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         "是兄弟就来干我！",
         "不收徒"
     }; // 预设的快捷语句
-    private ChatBubble activeChatBubble; // 当前显示的聊天气泡
-    private long chatBubbleStartTime; // 聊天气泡开始显示的时间
+    private volatile ChatBubble activeChatBubble; // 当前显示的聊天气泡
     private static final long CHAT_BUBBLE_DURATION = 2500; // 聊天气泡显示2.5秒
     
     
@@ -67,30 +99,48 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         surfaceHolder = getHolder();
         surfaceHolder.addCallback(this);
         
-        paint = new Paint();
-        paint.setAntiAlias(true);
-        paint.setStyle(Paint.Style.FILL);
-        
         // 不再加载图片，使用代码绘制
     }
     
     // 移除图片加载方法，使用代码绘制
     
-    public void updateGameWorld(GameWorld gameWorld) {
-        this.gameWorld = gameWorld;
+    /**
+     * 设置画面的快照来源，渲染线程是这个缓冲区唯一的读取方
+     */
+    public void setSnapshotSource(SnapshotBuffer snapshots) {
+        this.snapshotSource = snapshots;
+        this.layoutChanged = true;
+        this.needsRedraw = true;
+    }
+    
+    // 每帧在渲染线程中调用：有新的快照或界面状态变化时才重画
+    private void drawLatestSnapshot() {
+        SnapshotBuffer source = snapshotSource;
+        if (source == null) return;
+        
+        WorldSnapshot latest = source.acquire();
+        // 界面状态在一帧开始时读取一次，判断和绘制使用同一个值；聊天气泡出现和过期时各重画一次
+        ChatBubble bubble = currentChatBubble();
+        boolean panel = showQuickMessages;
+        if (latest.getVersion() == drawnVersion && !needsRedraw && bubble == drawnBubble && panel == drawnPanel) return;
+        
+        needsRedraw = false;
+        drawnBubble = bubble;
+        drawnPanel = panel;
+        snapshot = latest;
+        drawnVersion = latest.getVersion();
+        gameRunning = latest.isGameRunning();
+        allocationCounter.beginFrame();
         calculateGridLayout();
-        
-        // 直接绘制，不使用动画
         draw();
-        
-        this.lastGameWorld = gameWorld;
+        allocationCounter.endFrame();
     }
     
     private void calculateGridLayout() {
-        if (gameWorld == null || getWidth() == 0 || getHeight() == 0) return;
+        if (snapshot == null || getWidth() == 0 || getHeight() == 0) return;
         
         // 计算最优的格子大小和行列数
-        int baseGridSize = gameWorld.getGridSize(); // 基准大小，比如20
+        int baseGridSize = snapshot.getGridSize(); // 基准大小，比如20
         
         // 根据屏幕比例计算行列数
         float screenRatio = (float) getWidth() / getHeight();
@@ -122,23 +172,109 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
     }
     
     private void draw() {
-        if (surfaceHolder.getSurface().isValid()) {
-            Canvas canvas = surfaceHolder.lockCanvas();
+        synchronized (surfaceLock) {
+            if (!surfaceReady || !surfaceHolder.getSurface().isValid()) {
+                dirtyRegion.invalidate();
+                return;
+            }
+            // 只有部分区域变化时只锁定这一部分，Surface会保留其余部分上一帧的内容
+            boolean partial = recordFrame();
+            if (partial && dirtyRect.isEmpty()) return;
+            Canvas canvas = partial ? surfaceHolder.lockCanvas(dirtyRect) : surfaceHolder.lockCanvas();
             if (canvas != null) {
                 try {
                     drawGame(canvas);
                 } finally {
                     surfaceHolder.unlockCanvasAndPost(canvas);
                 }
+            } else {
+                dirtyRegion.invalidate();
+            }
+        }
+    }
+    
+    /**
+     * 记录这一帧画面的内容并与上一帧比较。返回false时整屏重画；
+     * 返回true时只需要重画dirtyRect（为空表示画面没有变化）
+     */
+    private boolean recordFrame() {
+        if (layoutChanged) {
+            layoutChanged = false;
+            dirtyRegion.invalidate();
+        }
+        if (snapshot == null || cellSize == 0) {
+            dirtyRegion.invalidate();
+            return false;
+        }
+        resources.update(getWidth(), getHeight(), cellSize, quickMessages.length);
+        int viewOffsetX = snapshot.getViewOffsetX();
+        int viewOffsetY = snapshot.getViewOffsetY();
+        dirtyRegion.beginFrame(gridCols, gridRows, cellSize, offsetX, offsetY, viewOffsetX, viewOffsetY);
+        
+        // 与drawGame相同的顺序记录每个格子中的精灵
+        for (int i = 0; i < snapshot.getFoodCount(); i++) {
+            int cell = snapshot.getFoodCell(i);
+            dirtyRegion.markCell(PackedPoint.x(cell) - viewOffsetX, PackedPoint.y(cell) - viewOffsetY,
+                                 1 + snapshot.getFoodType(i).ordinal());
+        }
+        int mySnakeIndex = snapshot.getMySnakeIndex();
+        for (int i = 0; i < snapshot.getSnakeCount(); i++) {
+            int color = snapshot.getColor(i);
+            int head = snapshot.getHead(i);
+            if (head >= 0 && isInView(PackedPoint.x(head), PackedPoint.y(head))) {
+                int viewX = PackedPoint.x(head) - viewOffsetX;
+                int viewY = PackedPoint.y(head) - viewOffsetY;
+                dirtyRegion.markCell(viewX, viewY, spriteKey(color, true, i == mySnakeIndex));
+                markNickname(i, offsetX + viewX * cellSize, offsetY + viewY * cellSize);
+            }
+            int bodyCount = snapshot.getVisibleBodyCount(i);
+            for (int j = 0; j < bodyCount; j++) {
+                int segment = snapshot.getVisibleBodySegment(i, j);
+                if (isInView(PackedPoint.x(segment), PackedPoint.y(segment))) {
+                    dirtyRegion.markCell(PackedPoint.x(segment) - viewOffsetX, PackedPoint.y(segment) - viewOffsetY,
+                                         spriteKey(color, false, i == mySnakeIndex));
+                }
             }
         }
+        
+        // 格子之外的覆盖物：快捷语句图层和聊天气泡
+        computeHudBounds(drawnPanel, hudBounds);
+        dirtyRegion.markOverlay(hudBounds.left, hudBounds.top, hudBounds.right, hudBounds.bottom, drawnPanel ? 2 : 1);
+        if (locateChatBubble()) {
+            resources.prepareChatBubble(drawnBubble.message);
+            float halfWidth = resources.bubbleWidth / 2f;
+            float shadow = RenderResources.CHAT_BUBBLE_SHADOW_OFFSET;
+            // 气泡、右下方的阴影和下方的尖角
+            dirtyRegion.markOverlay(bubbleX - halfWidth, bubbleY - resources.bubbleHeight,
+                                    bubbleX + halfWidth + shadow, bubbleY + 18 + shadow,
+                                    System.identityHashCode(drawnBubble));
+        }
+        return dirtyRegion.computeDirty(dirtyRect);
+    }
+    
+    // 格子签名中一节蛇的编码
+    private static int spriteKey(int color, boolean isHead, boolean isMySnake) {
+        return (color * 31 + (isHead ? 1 : 2)) * 31 + (isMySnake ? 1 : 2);
+    }
+    
+    // 记录昵称可能覆盖的范围：昵称在蛇头四周一格之内，宽度随文字变化
+    private void markNickname(int snakeIndex, float pixelX, float pixelY) {
+        String nickname = snapshot.getNickname(snakeIndex);
+        if (nickname == null || nickname.isEmpty()) return;
+        Direction direction = snapshot.getDirection(snakeIndex);
+        float halfWidth = resources.nicknameTextPaint.measureText(nickname) / 2f + cellSize + 4;
+        dirtyRegion.markOverlay(
+            pixelX + cellSize / 2f - halfWidth, pixelY - cellSize * 1.5f - 4,
+            pixelX + cellSize / 2f + halfWidth, pixelY + cellSize * 2.5f + 4,
+            nickname.hashCode() * 31 + (direction != null ? direction.ordinal() : -1)
+        );
     }
     
     private void drawGame(Canvas canvas) {
         // 清空画布 - 使用深灰色背景
-        canvas.drawColor(Color.parseColor("#2A2A2A"));
+        canvas.drawColor(RenderResources.BACKGROUND);
         
-        if (gameWorld == null || cellSize == 0) return;
+        if (snapshot == null || cellSize == 0) return;
         
         // 隐藏网格线
         // drawGrid(canvas);
@@ -149,16 +285,10 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         // 绘制食物
         drawFood(canvas);
         
-        // 绘制玩家的蛇
-        drawSnake(canvas, gameWorld.getMySnake(), true);
-        
-        // 绘制其他玩家的蛇
-        if (gameWorld.getOtherSnakes() != null) {
-            for (Snake snake : gameWorld.getOtherSnakes()) {
-                if (snake.isAlive()) {
-                    drawSnake(canvas, snake, false);
-                }
-            }
+        // 绘制蛇：快照中自己的蛇在最前面，其他蛇都是活着的
+        int mySnakeIndex = snapshot.getMySnakeIndex();
+        for (int i = 0; i < snapshot.getSnakeCount(); i++) {
+            drawSnake(canvas, i, i == mySnakeIndex);
         }
         
         // 绘制快捷语句面板（在游戏内容之上）
@@ -186,17 +316,17 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
     }
     
     private void drawMapBoundary(Canvas canvas) {
-        if (gameWorld == null) return;
+        if (snapshot == null) return;
         
         paint.setColor(Color.RED);
         paint.setStrokeWidth(4);
         paint.setStyle(Paint.Style.STROKE);
         
         // 计算世界地图边界在当前视野中的位置
-        int worldCols = gameWorld.getWorldMapCols();
-        int worldRows = gameWorld.getWorldMapRows();
-        int viewOffsetX = gameWorld.getViewOffsetX();
-        int viewOffsetY = gameWorld.getViewOffsetY();
+        int worldCols = snapshot.getWorldMapCols();
+        int worldRows = snapshot.getWorldMapRows();
+        int viewOffsetX = snapshot.getViewOffsetX();
+        int viewOffsetY = snapshot.getViewOffsetY();
         
         // 左边界
         if (viewOffsetX <= 0) {
@@ -226,105 +356,61 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         paint.setStyle(Paint.Style.FILL);
     }
     
+    // 快照中只有视野附近的食物
     private void drawFood(Canvas canvas) {
-        if (gameWorld.getFoods() == null) return;
-        
-        for (Food food : gameWorld.getFoods()) {
-            Point worldPos = food.getPosition();
-            if (worldPos != null && gameWorld.isInViewport(worldPos)) {
-                // 转换为视野坐标
-                Point viewPos = gameWorld.worldToViewport(worldPos);
-                
-                float centerX = offsetX + viewPos.getX() * cellSize + cellSize / 2f;
-                float centerY = offsetY + viewPos.getY() * cellSize + cellSize / 2f;
-                
-                // 根据食物类型绘制不同的形状
-                switch (food.getType()) {
-                    case APPLE:
-                        // 红色圆形苹果
-                        paint.setColor(Color.parseColor("#FF4444"));
-                        float appleRadius = cellSize / 3f;
-                        canvas.drawCircle(centerX, centerY, appleRadius, paint);
-                        
-                        // 绘制苹果的叶子（绿色小矩形）
-                        paint.setColor(Color.parseColor("#4CAF50"));
-                        float leafSize = cellSize / 8f;
-                        canvas.drawRect(centerX - leafSize/2, centerY - appleRadius - leafSize, 
-                                       centerX + leafSize/2, centerY - appleRadius, paint);
-                        break;
-                        
-                    case GOOD_FOOD:
-                        // 金色五角星
-                        paint.setColor(Color.parseColor("#FFD700"));
-                        drawStar(canvas, centerX, centerY, cellSize / 3f, paint);
-                        break;
-                        
-                    case BAD_FOOD:
-                        // 紫色骷髅头
-                        paint.setColor(Color.parseColor("#9C27B0"));
-                        float skullRadius = cellSize / 3f;
-                        canvas.drawCircle(centerX, centerY, skullRadius, paint);
-                        
-                        // 绘制眼睛
-                        paint.setColor(Color.BLACK);
-                        float eyeRadius = cellSize / 12f;
-                        canvas.drawCircle(centerX - skullRadius/2, centerY - skullRadius/3, eyeRadius, paint);
-                        canvas.drawCircle(centerX + skullRadius/2, centerY - skullRadius/3, eyeRadius, paint);
-                        
-                        // 绘制嘴巴
-                        canvas.drawRect(centerX - skullRadius/3, centerY + skullRadius/4, 
-                                       centerX + skullRadius/3, centerY + skullRadius/2, paint);
-                        break;
-                }
-            }
+        for (int i = 0; i < snapshot.getFoodCount(); i++) {
+            drawFoodItem(canvas, snapshot.getFoodCell(i), snapshot.getFoodType(i));
         }
     }
     
-    // 绘制五角星的辅助方法
-    private void drawStar(Canvas canvas, float centerX, float centerY, float radius, Paint paint) {
-        paint.setAntiAlias(true);
-        
-        // 简化的星星绘制：绘制一个实心五角星
-        Path starPath = new Path();
-        
-        // 计算五个外部点和五个内部点
-        for (int i = 0; i < 10; i++) {
-            double angle = Math.PI * i / 5.0;
-            float r = (i % 2 == 0) ? radius : radius * 0.5f;
-            float x = centerX + (float)(r * Math.cos(angle - Math.PI / 2));
-            float y = centerY + (float)(r * Math.sin(angle - Math.PI / 2));
-            
-            if (i == 0) {
-                starPath.moveTo(x, y);
-            } else {
-                starPath.lineTo(x, y);
-            }
-        }
-        starPath.close();
+    private void drawFoodItem(Canvas canvas, int cell, Food.FoodType type) {
+        // 转换为视野坐标
+        int viewX = PackedPoint.x(cell) - snapshot.getViewOffsetX();
+        int viewY = PackedPoint.y(cell) - snapshot.getViewOffsetY();
         
-        canvas.drawPath(starPath, paint);
+        // 每种食物在图集中预先画好，这里只贴一次图
+        resources.sprites.drawFood(canvas, type, offsetX + viewX * cellSize, offsetY + viewY * cellSize);
     }
     
-    private void drawSnake(Canvas canvas, Snake snake, boolean isMySnake) {
-        if (snake == null || snake.getBodyPoints() == null) return;
+    private void drawSnake(Canvas canvas, int snakeIndex, boolean isMySnake) {
+        int color = snapshot.getColor(snakeIndex);
         
-        List<Point> bodyPoints = snake.getBodyPoints();
+        int head = snapshot.getHead(snakeIndex);
+        if (head >= 0 && isInView(PackedPoint.x(head), PackedPoint.y(head))) {
+            drawSnakeSegment(canvas, PackedPoint.x(head), PackedPoint.y(head), color, true, isMySnake, snakeIndex);
+        }
         
-        for (int i = 0; i < bodyPoints.size(); i++) {
-            Point worldPoint = bodyPoints.get(i);
+        // 快照中只有视野附近的蛇身
+        int bodyCount = snapshot.getVisibleBodyCount(snakeIndex);
+        for (int i = 0; i < bodyCount; i++) {
+            int segment = snapshot.getVisibleBodySegment(snakeIndex, i);
+            int worldX = PackedPoint.x(segment);
+            int worldY = PackedPoint.y(segment);
             
             // 只绘制在视野内的部分
-            if (gameWorld.isInViewport(worldPoint)) {
-                drawSnakeSegment(canvas, worldPoint, snake.getColor(), i == 0, isMySnake, worldPoint.getX(), worldPoint.getY(), snake);
+            if (isInView(worldX, worldY)) {
+                drawSnakeSegment(canvas, worldX, worldY, color, false, isMySnake, snakeIndex);
             }
         }
     }
     
+    private boolean isInView(int worldX, int worldY) {
+        int viewX = worldX - snapshot.getViewOffsetX();
+        int viewY = worldY - snapshot.getViewOffsetY();
+        return viewX >= 0 && viewX < gridCols && viewY >= 0 && viewY < gridRows;
+    }
+    
+    // 从图集中贴一节蛇：蛇头不透明，自己的蛇身比别人的更不透明
+    private void drawSnakeSprite(Canvas canvas, int color, boolean isHead, boolean isMySnake, float pixelX, float pixelY) {
+        int alpha = isHead ? 255 : (isMySnake ? 180 : 150);
+        resources.sprites.drawSnakeSegment(canvas, color, isHead, alpha, pixelX, pixelY);
+    }
+    
     // 专门为动画蛇头设计的绘制方法，直接使用浮点坐标
-    private void drawSnakeSegmentWithFloatCoords(Canvas canvas, float worldX, float worldY, String color, boolean isHead, boolean isMySnake) {
+    private void drawSnakeSegmentWithFloatCoords(Canvas canvas, float worldX, float worldY, int color, boolean isHead, boolean isMySnake) {
         // 转换为视野坐标（浮点数）
-        float viewX = worldX - gameWorld.getViewOffsetX();
-        float viewY = worldY - gameWorld.getViewOffsetY();
+        float viewX = worldX - snapshot.getViewOffsetX();
+        float viewY = worldY - snapshot.getViewOffsetY();
         
         // 检查是否在视野范围内
         if (viewX < -1 || viewX > gridCols || viewY < -1 || viewY > gridRows) {
@@ -335,90 +421,26 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         float pixelX = offsetX + viewX * cellSize;
         float pixelY = offsetY + viewY * cellSize;
         
-        if (isHead) {
-            // 绘制蛇头 - 使用抗锯齿
-            paint.setColor(Color.parseColor(color));
-            paint.setAlpha(255);
-            paint.setAntiAlias(true);
-            canvas.drawRoundRect(
-                pixelX + 1,
-                pixelY + 1,
-                pixelX + cellSize - 1,
-                pixelY + cellSize - 1,
-                cellSize * 0.2f, cellSize * 0.2f,
-                paint
-            );
-        } else {
-            // 绘制蛇身
-            paint.setColor(Color.parseColor(color));
-            if (isMySnake) {
-                paint.setAlpha(180);
-            } else {
-                paint.setAlpha(150);
-            }
-            paint.setAntiAlias(true);
-            
-            canvas.drawRoundRect(
-                pixelX + 3,
-                pixelY + 3,
-                pixelX + cellSize - 3,
-                pixelY + cellSize - 3,
-                cellSize * 0.15f, cellSize * 0.15f,
-                paint
-            );
-            paint.setAlpha(255);
-        }
+        drawSnakeSprite(canvas, color, isHead, isMySnake, pixelX, pixelY);
     }
 
-    private void drawSnakeSegment(Canvas canvas, Point worldPoint, String color, boolean isHead, boolean isMySnake, float actualX, float actualY, Snake snake) {
-        Point viewPoint = gameWorld.worldToViewport(worldPoint);
-        
-        // 计算精确的像素位置，减少浮点误差
-        float baseX = offsetX + viewPoint.getX() * cellSize;
-        float baseY = offsetY + viewPoint.getY() * cellSize;
+    private void drawSnakeSegment(Canvas canvas, int worldX, int worldY, int color, boolean isHead, boolean isMySnake, int snakeIndex) {
+        int viewX = worldX - snapshot.getViewOffsetX();
+        int viewY = worldY - snapshot.getViewOffsetY();
         
-        // 应用亚像素偏移
-        float offsetDiffX = (actualX - worldPoint.getX()) * cellSize;
-        float offsetDiffY = (actualY - worldPoint.getY()) * cellSize;
-        
-        float pixelX = baseX + offsetDiffX;
-        float pixelY = baseY + offsetDiffY;
+        // 蛇身总是对齐格子，像素位置按整数格子计算
+        float pixelX = offsetX + viewX * cellSize;
+        float pixelY = offsetY + viewY * cellSize;
         
         if (isHead) {
-            // 绘制蛇头 - 使用抗锯齿
-            paint.setColor(Color.parseColor(color));
-            paint.setAlpha(255);
-            paint.setAntiAlias(true);
-            canvas.drawRoundRect(
-                pixelX + 1,
-                pixelY + 1,
-                pixelX + cellSize - 1,
-                pixelY + cellSize - 1,
-                cellSize * 0.2f, cellSize * 0.2f,
-                paint
-            );
+            // 绘制蛇头
+            drawSnakeSprite(canvas, color, true, isMySnake, pixelX, pixelY);
             
             // 在蛇头上方绘制玩家昵称
-            drawPlayerNickname(canvas, snake, pixelX, pixelY);
+            drawPlayerNickname(canvas, snapshot.getNickname(snakeIndex), snapshot.getDirection(snakeIndex), pixelX, pixelY);
         } else {
             // 绘制蛇身
-            paint.setColor(Color.parseColor(color));
-            if (isMySnake) {
-                paint.setAlpha(180);
-            } else {
-                paint.setAlpha(150);
-            }
-            paint.setAntiAlias(true);
-            
-            canvas.drawRoundRect(
-                pixelX + 3,
-                pixelY + 3,
-                pixelX + cellSize - 3,
-                pixelY + cellSize - 3,
-                cellSize * 0.15f, cellSize * 0.15f,
-                paint
-            );
-            paint.setAlpha(255);
+            drawSnakeSprite(canvas, color, false, isMySnake, pixelX, pixelY);
         }
     }
     
@@ -455,6 +477,7 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
             if (distance <= buttonRadius) {
                 // 切换快捷语句面板显示状态
                 showQuickMessages = !showQuickMessages;
+                needsRedraw = true;
                 return true;
             }
             
@@ -467,7 +490,7 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         }
         
         // 只处理点击开始游戏，不处理滑动控制
-        if (gameWorld == null || !gameWorld.isGameRunning()) {
+        if (!gameRunning) {
             return false; // 返回false让MainActivity处理点击开始游戏
         }
         
@@ -477,18 +500,48 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
     
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
-        // Surface创建时的处理
+        synchronized (surfaceLock) {
+            surfaceReady = true;
+        }
+        layoutChanged = true;
+        needsRedraw = true;
+        // Surface可用期间由渲染线程按垂直同步绘制
+        boolean debuggable = (getContext().getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        allocationCounter = new FrameAllocationCounter(debuggable);
+        allocationCounter.start();
+        renderThread = new GameRenderThread(frameRenderer);
+        if (getDisplay() != null) {
+            renderThread.setRefreshRate(getDisplay().getRefreshRate());
+        }
+        renderThread.start();
+        renderThread.startRendering();
     }
     
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
-        // Surface改变时的处理，重新计算布局
-        calculateGridLayout();
+        // Surface改变时由渲染线程在下一帧重新计算布局并整屏重画
+        layoutChanged = true;
+        needsRedraw = true;
+        if (allocationCounter != null) {
+            allocationCounter.restartWarmUp();
+        }
     }
     
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
-        // Surface销毁时的处理，无需清理图片资源
+        // 等待正在进行的绘制结束，之后渲染线程不会再访问Surface
+        synchronized (surfaceLock) {
+            surfaceReady = false;
+            // 图集和快捷语句图层的位图随Surface释放，下次绘制时重画
+            resources.release();
+        }
+        if (renderThread != null) {
+            renderThread.shutdown();
+            renderThread = null;
+        }
+        if (allocationCounter != null) {
+            allocationCounter.stop();
+        }
     }
     
     private void cleanupResources() {
@@ -498,22 +551,13 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
     /**
      * 根据蛇的移动方向绘制玩家昵称
      */
-    private void drawPlayerNickname(Canvas canvas, Snake snake, float pixelX, float pixelY) {
-        if (snake == null || snake.getNickname() == null || snake.getNickname().isEmpty()) {
+    private void drawPlayerNickname(Canvas canvas, String nickname, Direction direction, float pixelX, float pixelY) {
+        if (nickname == null || nickname.isEmpty()) {
             return;
         }
         
-        String nickname = snake.getNickname();
-        String direction = snake.getDirection();
-        
-        // 设置文字画笔 - 调整文字大小，保持可读性
-        Paint textPaint = new Paint();
-        textPaint.setAntiAlias(true);
-        textPaint.setColor(Color.WHITE);
-        textPaint.setTextSize(cellSize * 0.5f); // 稍微减小文字大小避免过大
-        textPaint.setTextAlign(Paint.Align.CENTER);
-        textPaint.setTypeface(android.graphics.Typeface.DEFAULT_BOLD); // 使用粗体字
-        textPaint.setShadowLayer(3, 1, 1, Color.BLACK); // 阴影效果
+        // 文字画笔的字号随格子大小在RenderResources中更新
+        Paint textPaint = resources.nicknameTextPaint;
         
         // 根据蛇的移动方向计算昵称显示位置，昵称显示在蛇头前进方向上
         float textX = pixelX + cellSize / 2f; // 水平居中（默认）
@@ -523,22 +567,22 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
         float offset = cellSize * 0.4f; // 统一的偏移距离
         if (direction != null) {
             switch (direction) {
-                case "UP":
+                case UP:
                     // 向上移动时，昵称显示在蛇头上方
                     textX = pixelX + cellSize / 2f;
                     textY = pixelY - offset; // 蛇头上方，统一距离
                     break;
-                case "DOWN":
+                case DOWN:
                     // 向下移动时，昵称显示在蛇头下方
                     textX = pixelX + cellSize / 2f;
                     textY = pixelY + cellSize + offset; // 蛇头下方，统一距离
                     break;
-                case "LEFT":
+                case LEFT:
                     // 向左移动时，昵称显示在蛇头左侧
                     textX = pixelX - offset; // 蛇头左侧，统一距离
                     textY = pixelY + cellSize * 0.7f; // 垂直稍微偏下
                     break;
-                case "RIGHT":
+                case RIGHT:
                     // 向右移动时，昵称显示在蛇头右侧
                     textX = pixelX + cellSize + offset; // 蛇头右侧，统一距离
                     textY = pixelY + cellSize * 0.7f; // 垂直稍微偏下
@@ -551,14 +595,9 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
             }
         }
         
-        // 绘制背景框
-        Paint backgroundPaint = new Paint();
-        backgroundPaint.setAntiAlias(true);
-        backgroundPaint.setColor(Color.BLACK);
-        backgroundPaint.setAlpha(140); // 适中的背景不透明度
-        
         // 测量文字宽度和高度
-        Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
+        Paint.FontMetrics fontMetrics = resources.fontMetrics;
+        textPaint.getFontMetrics(fontMetrics);
         float textWidth = textPaint.measureText(nickname);
         float textHeight = fontMetrics.bottom - fontMetrics.top;
         
@@ -570,7 +609,7 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
             textX + textWidth / 2f + padding,
             textY + fontMetrics.bottom + padding,
             padding, padding,
-            backgroundPaint
+            resources.nicknameBackgroundPaint
         );
         
         // 绘制昵称文字
@@ -578,114 +617,98 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
     }
     
     /**
-     * 绘制快捷语句栏
+     * 绘制快捷语句栏：按钮和面板预先合成到图层中，只在面板开关或视图尺寸变化时重画图层
      */
     private void drawQuickMessagePanel(Canvas canvas) {
-        int panelWidth = getWidth() / 5; // 增大面板宽度
-        int panelHeight = getHeight() / 2; // 面板高度为屏幕高度的1/2
-        int panelX = getWidth() - panelWidth - 150; // 向左移动，留出触发按钮的空间
-        int panelY = getHeight() / 4; // 垂直居中
-        
-        // 绘制快捷语句按钮（右侧边栏）- 更大的圆形按钮
-        Paint buttonPaint = new Paint();
-        buttonPaint.setAntiAlias(true);
-        
-        // 渐变背景
-        float buttonCenterX = getWidth() - 70; // 稍微向左移动一点
+        CachedLayer hudLayer = resources.hudLayer;
+        if (!hudLayer.isValid() || hudShowsPanel != drawnPanel) {
+            hudShowsPanel = drawnPanel;
+            Canvas layer = hudLayer.beginRecording(hudBounds.left, hudBounds.top, hudBounds.right, hudBounds.bottom);
+            drawQuickMessageHud(layer);
+            hudLayer.endRecording();
+        }
+        hudLayer.draw(canvas, null);
+    }
+    
+    // 快捷语句图层的范围：按钮，面板打开时再加上面板（含阴影）和连接线
+    private void computeHudBounds(boolean panelShown, Rect out) {
+        float buttonCenterX = getWidth() - RenderResources.BUTTON_RIGHT_INSET;
         float buttonCenterY = getHeight() / 2f;
-        float buttonRadius = 65; // 增大按钮半径到65px
-        
-        android.graphics.RadialGradient buttonGradient = new android.graphics.RadialGradient(
-            buttonCenterX, buttonCenterY, buttonRadius,
-            Color.parseColor("#4FC3F7"), // 浅蓝色
-            Color.parseColor("#29B6F6"), // 深蓝色
-            android.graphics.Shader.TileMode.CLAMP
-        );
-        buttonPaint.setShader(buttonGradient);
+        float extent = RenderResources.BUTTON_RADIUS + 4; // 边框线宽的一半加上抗锯齿
+        float left = buttonCenterX - extent;
+        float top = buttonCenterY - extent;
+        float right = buttonCenterX + extent;
+        float bottom = buttonCenterY + extent;
+        if (panelShown) {
+            left = Math.min(left, resources.panelX - 4);
+            top = Math.min(top, resources.panelY - 4);
+            bottom = Math.max(bottom, resources.panelY + resources.panelHeight + 12);
+        }
+        out.set((int) Math.floor(left), (int) Math.floor(top), (int) Math.ceil(right), (int) Math.ceil(bottom));
+    }
+    
+    private void drawQuickMessageHud(Canvas canvas) {
+        // 绘制快捷语句按钮（右侧边栏）- 更大的圆形按钮，渐变和图标都以按钮中心为原点
+        float buttonCenterX = getWidth() - RenderResources.BUTTON_RIGHT_INSET; // 稍微向左移动一点
+        float buttonCenterY = getHeight() / 2f;
+        float buttonRadius = RenderResources.BUTTON_RADIUS; // 增大按钮半径到65px
         
+        canvas.save();
+        canvas.translate(buttonCenterX, buttonCenterY);
         // 绘制圆形按钮
-        canvas.drawCircle(buttonCenterX, buttonCenterY, buttonRadius, buttonPaint);
-        
+        canvas.drawCircle(0, 0, buttonRadius, resources.buttonPaint);
         // 按钮边框
-        Paint borderPaint = new Paint();
-        borderPaint.setAntiAlias(true);
-        borderPaint.setColor(Color.parseColor("#1976D2"));
-        borderPaint.setStyle(Paint.Style.STROKE);
-        borderPaint.setStrokeWidth(4);
-        canvas.drawCircle(buttonCenterX, buttonCenterY, buttonRadius, borderPaint);
-        
+        canvas.drawCircle(0, 0, buttonRadius, resources.buttonBorderPaint);
         // 绘制聊天图标（两个对话气泡）
-        drawChatIcon(canvas, buttonCenterX, buttonCenterY);
+        drawChatIcon(canvas);
+        canvas.restore();
         
         // 如果显示快捷语句面板
-        if (showQuickMessages) {
-            drawQuickMessagesList(canvas, panelX, panelY, panelWidth, panelHeight);
+        if (hudShowsPanel) {
+            drawQuickMessagesList(canvas);
             
             // 绘制连接线，表示面板和按钮的关联
-            drawConnectionLine(canvas, panelX + panelWidth, panelY + panelHeight / 2f, buttonCenterX, buttonCenterY);
+            drawConnectionLine(canvas, resources.panelX + resources.panelWidth,
+                               resources.panelY + resources.panelHeight / 2f, buttonCenterX, buttonCenterY);
         }
     }
     
     /**
-     * 绘制聊天图标
+     * 绘制聊天图标，画布原点在按钮中心
      */
-    private void drawChatIcon(Canvas canvas, float centerX, float centerY) {
-        Paint iconPaint = new Paint();
-        iconPaint.setAntiAlias(true);
-        iconPaint.setColor(Color.WHITE);
-        
-        // 绘制主对话气泡（蓝色，类似您的图标）
-        Paint bubble1Paint = new Paint();
-        bubble1Paint.setAntiAlias(true);
-        bubble1Paint.setColor(Color.parseColor("#00BCD4")); // 青色，更接近您的图标
-        
-        float bubble1X = centerX + 5;
-        float bubble1Y = centerY - 5;
+    private void drawChatIcon(Canvas canvas) {
+        // 绘制主对话气泡（青色，类似您的图标）
+        float bubble1X = 5;
+        float bubble1Y = -5;
         float bubble1Width = 28;
         float bubble1Height = 20;
         
         canvas.drawRoundRect(
             bubble1X - bubble1Width/2, bubble1Y - bubble1Height/2,
             bubble1X + bubble1Width/2, bubble1Y + bubble1Height/2,
-            8, 8, bubble1Paint
+            8, 8, resources.iconBubble1Paint
         );
         
         // 主气泡的尖角
-        Path bubble1Tail = new Path();
-        bubble1Tail.moveTo(bubble1X - bubble1Width/2 + 6, bubble1Y + bubble1Height/2);
-        bubble1Tail.lineTo(bubble1X - bubble1Width/2 - 4, bubble1Y + bubble1Height/2 + 8);
-        bubble1Tail.lineTo(bubble1X - bubble1Width/2 + 10, bubble1Y + bubble1Height/2);
-        bubble1Tail.close();
-        canvas.drawPath(bubble1Tail, bubble1Paint);
+        canvas.drawPath(resources.iconBubble1Tail, resources.iconBubble1Paint);
         
         // 绘制副对话气泡（橙色，类似您的图标）
-        Paint bubble2Paint = new Paint();
-        bubble2Paint.setAntiAlias(true);
-        bubble2Paint.setColor(Color.parseColor("#FF9800")); // 橙色
-        
-        float bubble2X = centerX - 5;
-        float bubble2Y = centerY + 5;
+        float bubble2X = -5;
+        float bubble2Y = 5;
         float bubble2Width = 24;
         float bubble2Height = 16;
         
         canvas.drawRoundRect(
             bubble2X - bubble2Width/2, bubble2Y - bubble2Height/2,
             bubble2X + bubble2Width/2, bubble2Y + bubble2Height/2,
-            6, 6, bubble2Paint
+            6, 6, resources.iconBubble2Paint
         );
         
         // 副气泡的尖角
-        Path bubble2Tail = new Path();
-        bubble2Tail.moveTo(bubble2X + bubble2Width/2 - 6, bubble2Y + bubble2Height/2);
-        bubble2Tail.lineTo(bubble2X + bubble2Width/2 + 4, bubble2Y + bubble2Height/2 + 6);
-        bubble2Tail.lineTo(bubble2X + bubble2Width/2 - 10, bubble2Y + bubble2Height/2);
-        bubble2Tail.close();
-        canvas.drawPath(bubble2Tail, bubble2Paint);
+        canvas.drawPath(resources.iconBubble2Tail, resources.iconBubble2Paint);
         
         // 绘制气泡内的省略号点点（白色）
-        Paint dotPaint = new Paint();
-        dotPaint.setAntiAlias(true);
-        dotPaint.setColor(Color.WHITE);
+        Paint dotPaint = resources.iconDotPaint;
         
         // 主气泡内的三个点
         float dotRadius = 2.5f;
@@ -702,112 +725,57 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
      * 绘制面板和按钮之间的连接线
      */
     private void drawConnectionLine(Canvas canvas, float panelEndX, float panelCenterY, float buttonCenterX, float buttonCenterY) {
-        Paint linePaint = new Paint();
-        linePaint.setAntiAlias(true);
-        linePaint.setColor(Color.parseColor("#4FC3F7"));
-        linePaint.setStrokeWidth(6);
-        linePaint.setAlpha(150);
-        
         // 绘制连接线
-        canvas.drawLine(panelEndX, panelCenterY, buttonCenterX - 65, buttonCenterY, linePaint);
+        canvas.drawLine(panelEndX, panelCenterY, buttonCenterX - RenderResources.BUTTON_RADIUS, buttonCenterY,
+                        resources.connectionLinePaint);
         
         // 绘制小箭头
-        Paint arrowPaint = new Paint();
-        arrowPaint.setAntiAlias(true);
-        arrowPaint.setColor(Color.parseColor("#29B6F6"));
-        
-        float arrowX = buttonCenterX - 75;
-        float arrowY = buttonCenterY;
-        
-        Path arrowPath = new Path();
-        arrowPath.moveTo(arrowX, arrowY);
-        arrowPath.lineTo(arrowX - 12, arrowY - 8);
-        arrowPath.lineTo(arrowX - 12, arrowY + 8);
-        arrowPath.close();
-        
-        canvas.drawPath(arrowPath, arrowPaint);
+        canvas.save();
+        canvas.translate(buttonCenterX - 75, buttonCenterY);
+        canvas.drawPath(resources.arrowPath, resources.arrowPaint);
+        canvas.restore();
     }
     
     /**
-     * 绘制快捷语句列表
+     * 绘制快捷语句列表，面板位置和渐变随视图尺寸在RenderResources中更新
      */
-    private void drawQuickMessagesList(Canvas canvas, int panelX, int panelY, int panelWidth, int panelHeight) {
+    private void drawQuickMessagesList(Canvas canvas) {
+        int panelX = resources.panelX;
+        int panelY = resources.panelY;
+        int panelWidth = resources.panelWidth;
+        int panelHeight = resources.panelHeight;
+        
         // 绘制背景面板阴影
-        Paint shadowPaint = new Paint();
-        shadowPaint.setAntiAlias(true);
-        shadowPaint.setColor(Color.BLACK);
-        shadowPaint.setAlpha(80);
         float shadowOffset = 8;
         canvas.drawRoundRect(
             panelX + shadowOffset, panelY + shadowOffset, 
             panelX + panelWidth + shadowOffset, panelY + panelHeight + shadowOffset, 
-            20, 20, shadowPaint
+            20, 20, resources.panelShadowPaint
         );
         
         // 绘制背景面板 - 渐变背景
-        Paint panelPaint = new Paint();
-        panelPaint.setAntiAlias(true);
-        android.graphics.LinearGradient panelGradient = new android.graphics.LinearGradient(
-            panelX, panelY,
-            panelX, panelY + panelHeight,
-            Color.parseColor("#37474F"), // 深灰色
-            Color.parseColor("#263238"), // 更深的灰色
-            android.graphics.Shader.TileMode.CLAMP
-        );
-        panelPaint.setShader(panelGradient);
-        canvas.drawRoundRect(panelX, panelY, panelX + panelWidth, panelY + panelHeight, 20, 20, panelPaint);
+        canvas.drawRoundRect(panelX, panelY, panelX + panelWidth, panelY + panelHeight, 20, 20, resources.panelPaint);
         
         // 面板边框
-        Paint panelBorderPaint = new Paint();
-        panelBorderPaint.setAntiAlias(true);
-        panelBorderPaint.setColor(Color.parseColor("#1976D2"));
-        panelBorderPaint.setStyle(Paint.Style.STROKE);
-        panelBorderPaint.setStrokeWidth(3);
-        canvas.drawRoundRect(panelX, panelY, panelX + panelWidth, panelY + panelHeight, 20, 20, panelBorderPaint);
+        canvas.drawRoundRect(panelX, panelY, panelX + panelWidth, panelY + panelHeight, 20, 20, resources.panelBorderPaint);
         
         // 绘制快捷语句选项
-        Paint textPaint = new Paint();
-        textPaint.setAntiAlias(true);
-        textPaint.setColor(Color.WHITE);
-        textPaint.setTextSize(32); // 增大字体
-        textPaint.setTextAlign(Paint.Align.CENTER);
-        textPaint.setTypeface(android.graphics.Typeface.DEFAULT_BOLD);
-        textPaint.setShadowLayer(2, 1, 1, Color.BLACK);
-        
-        Paint itemBgPaint = new Paint();
-        itemBgPaint.setAntiAlias(true);
-        
         int itemHeight = panelHeight / quickMessages.length;
         for (int i = 0; i < quickMessages.length; i++) {
             float itemY = panelY + i * itemHeight;
             
-            // 每个选项的渐变背景
-            android.graphics.LinearGradient itemGradient = new android.graphics.LinearGradient(
-                panelX + 15, itemY + 8,
-                panelX + panelWidth - 15, itemY + itemHeight - 8,
-                Color.parseColor("#4FC3F7"), // 浅蓝色
-                Color.parseColor("#29B6F6"), // 深蓝色
-                android.graphics.Shader.TileMode.CLAMP
-            );
-            itemBgPaint.setShader(itemGradient);
-            
-            // 绘制选项背景
+            // 绘制选项背景（每个选项的渐变背景）
             canvas.drawRoundRect(
                 panelX + 15, itemY + 8,
                 panelX + panelWidth - 15, itemY + itemHeight - 8,
-                12, 12, itemBgPaint
+                12, 12, resources.itemBackgroundPaint(i)
             );
             
             // 选项边框
-            Paint itemBorderPaint = new Paint();
-            itemBorderPaint.setAntiAlias(true);
-            itemBorderPaint.setColor(Color.parseColor("#1976D2"));
-            itemBorderPaint.setStyle(Paint.Style.STROKE);
-            itemBorderPaint.setStrokeWidth(2);
             canvas.drawRoundRect(
                 panelX + 15, itemY + 8,
                 panelX + panelWidth - 15, itemY + itemHeight - 8,
-                12, 12, itemBorderPaint
+                12, 12, resources.itemBorderPaint
             );
             
             // 绘制选项文字
@@ -815,7 +783,7 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
                 quickMessages[i],
                 panelX + panelWidth / 2f,
                 itemY + itemHeight / 2f + 12,
-                textPaint
+                resources.itemTextPaint
             );
         }
     }
@@ -824,141 +792,91 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
      * 绘制聊天气泡
      */
     private void drawChatBubble(Canvas canvas) {
-        if (activeChatBubble == null || gameWorld == null || gameWorld.getMySnake() == null) {
+        if (!locateChatBubble()) {
             return;
         }
         
-        // 检查气泡是否过期
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - chatBubbleStartTime > CHAT_BUBBLE_DURATION) {
-            activeChatBubble = null;
-            return;
+        // 绘制聊天气泡 - 调整位置让其更醒目
+        drawChatBubbleAt(canvas, drawnBubble.message, bubbleX, bubbleY);
+    }
+    
+    /**
+     * 计算这一帧聊天气泡的位置（自己的蛇头上方），没有气泡或蛇头不在视野内时返回false
+     */
+    private boolean locateChatBubble() {
+        if (drawnBubble == null || snapshot == null || snapshot.getMySnakeIndex() < 0) {
+            return false;
         }
         
         // 获取蛇头位置
-        Snake mySnake = gameWorld.getMySnake();
-        List<Point> bodyPoints = mySnake.getBodyPoints();
-        if (bodyPoints == null || bodyPoints.isEmpty()) {
-            return;
+        int head = snapshot.getHead(snapshot.getMySnakeIndex());
+        if (head < 0) {
+            return false;
         }
         
-        Point head = bodyPoints.get(0);
-        
         // 转换为屏幕坐标
-        float screenX = offsetX + (head.getX() - gameWorld.getViewOffsetX()) * cellSize;
-        float screenY = offsetY + (head.getY() - gameWorld.getViewOffsetY()) * cellSize;
+        float screenX = offsetX + (PackedPoint.x(head) - snapshot.getViewOffsetX()) * cellSize;
+        float screenY = offsetY + (PackedPoint.y(head) - snapshot.getViewOffsetY()) * cellSize;
         
         // 检查是否在视野内
         if (screenX < -cellSize || screenX > getWidth() + cellSize ||
             screenY < -cellSize || screenY > getHeight() + cellSize) {
-            return; // 不在视野内，不显示
+            return false; // 不在视野内，不显示
         }
         
-        // 绘制聊天气泡 - 调整位置让其更醒目
-        drawChatBubbleAt(canvas, activeChatBubble.message, screenX + cellSize / 2f, screenY - cellSize * 2.0f);
+        bubbleX = screenX + cellSize / 2f;
+        bubbleY = screenY - cellSize * 2.0f;
+        return true;
+    }
+    
+    // 还在显示期内的聊天气泡，没有时返回null
+    private ChatBubble currentChatBubble() {
+        ChatBubble bubble = activeChatBubble;
+        if (bubble == null || System.currentTimeMillis() - bubble.timestamp > CHAT_BUBBLE_DURATION) {
+            return null;
+        }
+        return bubble;
     }
     
     /**
-     * 在指定位置绘制聊天气泡
+     * 在指定位置绘制聊天气泡，(x, y)为气泡底边中点；尺寸和渐变只在消息变化时重新计算
      */
     private void drawChatBubbleAt(Canvas canvas, String message, float x, float y) {
-        // 设置文字画笔 - 适中的字体
-        Paint textPaint = new Paint();
-        textPaint.setAntiAlias(true);
-        textPaint.setColor(Color.BLACK);
-        textPaint.setTextSize(36); // 减小字体到36px
-        textPaint.setTextAlign(Paint.Align.CENTER);
-        textPaint.setTypeface(android.graphics.Typeface.DEFAULT_BOLD);
-        
-        // 测量文字尺寸
-        Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
-        float textWidth = textPaint.measureText(message);
-        float textHeight = fontMetrics.bottom - fontMetrics.top;
+        resources.prepareChatBubble(message);
+        float bubbleWidth = resources.bubbleWidth;
+        float bubbleHeight = resources.bubbleHeight;
+        float shadowOffset = RenderResources.CHAT_BUBBLE_SHADOW_OFFSET;
         
-        // 计算气泡尺寸 - 减小内边距
-        float padding = 25; // 减小内边距到25px
-        float bubbleWidth = Math.max(textWidth + padding * 2, 140); // 减小最小宽度
-        float bubbleHeight = textHeight + padding;
+        canvas.save();
+        canvas.translate(x, y);
         
         // 绘制气泡阴影
-        Paint shadowPaint = new Paint();
-        shadowPaint.setAntiAlias(true);
-        shadowPaint.setColor(Color.BLACK);
-        shadowPaint.setAlpha(50);
-        
-        float shadowOffset = 6; // 减小阴影偏移
         canvas.drawRoundRect(
-            x - bubbleWidth / 2f + shadowOffset,
-            y - bubbleHeight + shadowOffset,
-            x + bubbleWidth / 2f + shadowOffset,
-            y + shadowOffset,
+            -bubbleWidth / 2f + shadowOffset,
+            -bubbleHeight + shadowOffset,
+            bubbleWidth / 2f + shadowOffset,
+            shadowOffset,
             16, 16, // 减小圆角
-            shadowPaint
+            resources.bubbleShadowPaint
         );
         
-        // 绘制气泡背景 - 渐变色效果
-        Paint bubblePaint = new Paint();
-        bubblePaint.setAntiAlias(true);
-        
-        // 使用王者荣耀风格的蓝色渐变
-        android.graphics.LinearGradient gradient = new android.graphics.LinearGradient(
-            x - bubbleWidth / 2f, y - bubbleHeight,
-            x + bubbleWidth / 2f, y,
-            Color.parseColor("#4FC3F7"), // 浅蓝色
-            Color.parseColor("#29B6F6"), // 深蓝色
-            android.graphics.Shader.TileMode.CLAMP
-        );
-        bubblePaint.setShader(gradient);
+        // 绘制圆角矩形气泡 - 蓝色渐变
+        canvas.drawRoundRect(-bubbleWidth / 2f, -bubbleHeight, bubbleWidth / 2f, 0, 16, 16, resources.bubblePaint);
         
-        // 绘制圆角矩形气泡
-        canvas.drawRoundRect(
-            x - bubbleWidth / 2f,
-            y - bubbleHeight,
-            x + bubbleWidth / 2f,
-            y,
-            16, 16, // 减小圆角
-            bubblePaint
-        );
-        
-        // 绘制气泡边框 - 稍细的边框
-        Paint borderPaint = new Paint();
-        borderPaint.setAntiAlias(true);
-        borderPaint.setColor(Color.parseColor("#1976D2")); // 深蓝色边框
-        borderPaint.setStyle(Paint.Style.STROKE);
-        borderPaint.setStrokeWidth(3); // 减小边框宽度
-        
-        canvas.drawRoundRect(
-            x - bubbleWidth / 2f,
-            y - bubbleHeight,
-            x + bubbleWidth / 2f,
-            y,
-            16, 16,
-            borderPaint
-        );
-        
-        // 绘制气泡尖角 - 稍小的尖角
-        Path trianglePath = new Path();
-        trianglePath.moveTo(x - 15, y);
-        trianglePath.lineTo(x, y + 18); // 稍小的尖角
-        trianglePath.lineTo(x + 15, y);
-        trianglePath.close();
+        // 绘制气泡边框
+        canvas.drawRoundRect(-bubbleWidth / 2f, -bubbleHeight, bubbleWidth / 2f, 0, 16, 16, resources.bubbleBorderPaint);
         
         // 尖角阴影
-        Path shadowTrianglePath = new Path();
-        shadowTrianglePath.moveTo(x - 15 + shadowOffset, y + shadowOffset);
-        shadowTrianglePath.lineTo(x + shadowOffset, y + 18 + shadowOffset);
-        shadowTrianglePath.lineTo(x + 15 + shadowOffset, y + shadowOffset);
-        shadowTrianglePath.close();
-        canvas.drawPath(shadowTrianglePath, shadowPaint);
+        canvas.drawPath(resources.bubbleShadowTriangle, resources.bubbleShadowPaint);
         
         // 绘制尖角
-        canvas.drawPath(trianglePath, bubblePaint);
-        canvas.drawPath(trianglePath, borderPaint);
+        canvas.drawPath(resources.bubbleTriangle, resources.bubblePaint);
+        canvas.drawPath(resources.bubbleTriangle, resources.bubbleBorderPaint);
         
         // 绘制文字 - 白色文字更醒目
-        textPaint.setColor(Color.WHITE);
-        textPaint.setShadowLayer(2, 1, 1, Color.parseColor("#1976D2")); // 文字阴影
-        canvas.drawText(message, x, y - bubbleHeight / 2f + textHeight / 2f - 6, textPaint);
+        canvas.drawText(message, 0, -bubbleHeight / 2f + resources.bubbleTextHeight / 2f - 6, resources.bubbleTextPaint);
+        
+        canvas.restore();
     }
     
     /**
@@ -998,6 +916,7 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
                 
                 // 隐藏快捷语句面板
                 showQuickMessages = false;
+                needsRedraw = true;
                 
                 return true;
             }
@@ -1011,6 +930,6 @@ public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callba
      */
     private void showChatBubble(String message) {
         activeChatBubble = new ChatBubble(message);
-        chatBubbleStartTime = System.currentTimeMillis();
+        needsRedraw = true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,276 @@
+package com.example.snakegame.ui.view;
+
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+import android.graphics.Typeface;
+
+/**
+ * 游戏画面用到的全部Paint、Path和Shader。
+ * 与尺寸无关的图形（聊天图标、箭头、气泡尖角、按钮渐变）在构造时按局部坐标创建一次，绘制时平移画布；
+ * 与视图或格子尺寸有关的（精灵图集、昵称字号、快捷语句面板的渐变）只在 {@link #update} 发现尺寸变化时重建。
+ * 稳定运行时每帧绘制不创建任何对象。只在渲染线程中使用。
+ */
+final class RenderResources {
+    // 颜色
+    static final int BACKGROUND = 0xFF2A2A2A;
+    static final int APPLE = 0xFFFF4444;
+    static final int APPLE_LEAF = 0xFF4CAF50;
+    static final int GOOD_FOOD = 0xFFFFD700;
+    static final int BAD_FOOD = 0xFF9C27B0;
+    static final int LIGHT_BLUE = 0xFF4FC3F7;
+    static final int BLUE = 0xFF29B6F6;
+    static final int DARK_BLUE = 0xFF1976D2;
+    static final int CYAN = 0xFF00BCD4;
+    static final int ORANGE = 0xFFFF9800;
+    static final int PANEL_TOP = 0xFF37474F;
+    static final int PANEL_BOTTOM = 0xFF263238;
+
+    // 快捷语句按钮（相对于视图右边缘和垂直中心）
+    static final float BUTTON_RADIUS = 65;
+    static final float BUTTON_RIGHT_INSET = 70;
+    static final float CHAT_BUBBLE_PADDING = 25;
+    static final float CHAT_BUBBLE_MIN_WIDTH = 140;
+    static final float CHAT_BUBBLE_SHADOW_OFFSET = 6;
+
+    // 通用画笔：地图边界、食物、蛇
+    final Paint paint = new Paint();
+
+    // 昵称
+    final Paint nicknameTextPaint = new Paint();
+    final Paint nicknameBackgroundPaint = new Paint();
+    final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+
+    // 食物和蛇的精灵图集
+    final SpriteAtlas sprites = new SpriteAtlas();
+    // 预先合成的快捷语句按钮和面板
+    final CachedLayer hudLayer = new CachedLayer();
+
+    // 快捷语句按钮和图标（中心在原点）
+    final Paint buttonPaint = new Paint();
+    final Paint buttonBorderPaint = new Paint();
+    final Paint iconBubble1Paint = new Paint();
+    final Paint iconBubble2Paint = new Paint();
+    final Paint iconDotPaint = new Paint();
+    final Path iconBubble1Tail = new Path();
+    final Path iconBubble2Tail = new Path();
+
+    // 面板与按钮之间的连接线，箭头尖端在原点
+    final Paint connectionLinePaint = new Paint();
+    final Paint arrowPaint = new Paint();
+    final Path arrowPath = new Path();
+
+    // 快捷语句面板
+    int panelX, panelY, panelWidth, panelHeight;
+    final Paint panelShadowPaint = new Paint();
+    final Paint panelPaint = new Paint();
+    final Paint panelBorderPaint = new Paint();
+    final Paint itemTextPaint = new Paint();
+    final Paint itemBorderPaint = new Paint();
+    private Paint[] itemBackgroundPaints = new Paint[0];
+
+    // 聊天气泡（尖端在原点，气泡在上方）
+    final Paint bubbleTextPaint = new Paint();
+    final Paint bubbleShadowPaint = new Paint();
+    final Paint bubblePaint = new Paint();
+    final Paint bubbleBorderPaint = new Paint();
+    final Path bubbleTriangle = new Path();
+    final Path bubbleShadowTriangle = new Path();
+    float bubbleWidth, bubbleHeight, bubbleTextHeight;
+    private String bubbleMessage;
+
+    private int viewWidth = -1;
+    private int viewHeight = -1;
+    private int cellSize = -1;
+    private int quickMessageCount = -1;
+
+    RenderResources() {
+        paint.setAntiAlias(true);
+        paint.setStyle(Paint.Style.FILL);
+
+        nicknameTextPaint.setAntiAlias(true);
+        nicknameTextPaint.setColor(Color.WHITE);
+        nicknameTextPaint.setTextAlign(Paint.Align.CENTER);
+        nicknameTextPaint.setTypeface(Typeface.DEFAULT_BOLD); // 使用粗体字
+        nicknameTextPaint.setShadowLayer(3, 1, 1, Color.BLACK); // 阴影效果
+        nicknameBackgroundPaint.setAntiAlias(true);
+        nicknameBackgroundPaint.setColor(Color.BLACK);
+        nicknameBackgroundPaint.setAlpha(140); // 适中的背景不透明度
+
+        createButton();
+        createConnection();
+        createPanelPaints();
+        createChatBubble();
+    }
+
+    /**
+     * 视图或格子尺寸变化时重建相关的图形，每帧绘制前调用
+     */
+    void update(int viewWidth, int viewHeight, int cellSize, int quickMessageCount) {
+        if (cellSize != this.cellSize) {
+            this.cellSize = cellSize;
+            nicknameTextPaint.setTextSize(cellSize * 0.5f); // 稍微减小文字大小避免过大
+        }
+        sprites.update(cellSize);
+        if (viewWidth != this.viewWidth || viewHeight != this.viewHeight
+                || quickMessageCount != this.quickMessageCount) {
+            this.viewWidth = viewWidth;
+            this.viewHeight = viewHeight;
+            this.quickMessageCount = quickMessageCount;
+            buildPanel(quickMessageCount);
+            hudLayer.invalidate();
+        }
+    }
+
+    // 释放位图，Surface销毁时调用；下次绘制时重建
+    void release() {
+        sprites.release();
+        hudLayer.release();
+    }
+
+    Paint itemBackgroundPaint(int index) {
+        return itemBackgroundPaints[index];
+    }
+
+    /**
+     * 按消息准备聊天气泡的尺寸和渐变，消息不变时不重新计算
+     */
+    void prepareChatBubble(String message) {
+        if (message == bubbleMessage) return;
+        bubbleMessage = message;
+        bubbleTextPaint.getFontMetrics(fontMetrics);
+        float textWidth = bubbleTextPaint.measureText(message);
+        bubbleTextHeight = fontMetrics.bottom - fontMetrics.top;
+        bubbleWidth = Math.max(textWidth + CHAT_BUBBLE_PADDING * 2, CHAT_BUBBLE_MIN_WIDTH);
+        bubbleHeight = bubbleTextHeight + CHAT_BUBBLE_PADDING;
+        // 使用王者荣耀风格的蓝色渐变
+        bubblePaint.setShader(new LinearGradient(
+            -bubbleWidth / 2f, -bubbleHeight,
+            bubbleWidth / 2f, 0,
+            LIGHT_BLUE, BLUE, Shader.TileMode.CLAMP));
+    }
+
+    private void createButton() {
+        buttonPaint.setAntiAlias(true);
+        buttonPaint.setShader(new RadialGradient(0, 0, BUTTON_RADIUS,
+            LIGHT_BLUE, BLUE, Shader.TileMode.CLAMP));
+        buttonBorderPaint.setAntiAlias(true);
+        buttonBorderPaint.setColor(DARK_BLUE);
+        buttonBorderPaint.setStyle(Paint.Style.STROKE);
+        buttonBorderPaint.setStrokeWidth(4);
+
+        // 两个对话气泡：主气泡中心在(5, -5)，副气泡中心在(-5, 5)
+        iconBubble1Paint.setAntiAlias(true);
+        iconBubble1Paint.setColor(CYAN);
+        iconBubble2Paint.setAntiAlias(true);
+        iconBubble2Paint.setColor(ORANGE);
+        iconDotPaint.setAntiAlias(true);
+        iconDotPaint.setColor(Color.WHITE);
+
+        iconBubble1Tail.moveTo(5 - 14 + 6, -5 + 10);
+        iconBubble1Tail.lineTo(5 - 14 - 4, -5 + 10 + 8);
+        iconBubble1Tail.lineTo(5 - 14 + 10, -5 + 10);
+        iconBubble1Tail.close();
+
+        iconBubble2Tail.moveTo(-5 + 12 - 6, 5 + 8);
+        iconBubble2Tail.lineTo(-5 + 12 + 4, 5 + 8 + 6);
+        iconBubble2Tail.lineTo(-5 + 12 - 10, 5 + 8);
+        iconBubble2Tail.close();
+    }
+
+    private void createConnection() {
+        connectionLinePaint.setAntiAlias(true);
+        connectionLinePaint.setColor(LIGHT_BLUE);
+        connectionLinePaint.setStrokeWidth(6);
+        connectionLinePaint.setAlpha(150);
+        arrowPaint.setAntiAlias(true);
+        arrowPaint.setColor(BLUE);
+        arrowPath.moveTo(0, 0);
+        arrowPath.lineTo(-12, -8);
+        arrowPath.lineTo(-12, 8);
+        arrowPath.close();
+    }
+
+    private void createPanelPaints() {
+        panelShadowPaint.setAntiAlias(true);
+        panelShadowPaint.setColor(Color.BLACK);
+        panelShadowPaint.setAlpha(80);
+        panelPaint.setAntiAlias(true);
+        panelBorderPaint.setAntiAlias(true);
+        panelBorderPaint.setColor(DARK_BLUE);
+        panelBorderPaint.setStyle(Paint.Style.STROKE);
+        panelBorderPaint.setStrokeWidth(3);
+
+        itemTextPaint.setAntiAlias(true);
+        itemTextPaint.setColor(Color.WHITE);
+        itemTextPaint.setTextSize(32); // 增大字体
+        itemTextPaint.setTextAlign(Paint.Align.CENTER);
+        itemTextPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        itemTextPaint.setShadowLayer(2, 1, 1, Color.BLACK);
+        itemBorderPaint.setAntiAlias(true);
+        itemBorderPaint.setColor(DARK_BLUE);
+        itemBorderPaint.setStyle(Paint.Style.STROKE);
+        itemBorderPaint.setStrokeWidth(2);
+    }
+
+    // 面板位置随视图尺寸变化，渐变也要跟着重建
+    private void buildPanel(int itemCount) {
+        panelWidth = viewWidth / 5; // 增大面板宽度
+        panelHeight = viewHeight / 2; // 面板高度为屏幕高度的1/2
+        panelX = viewWidth - panelWidth - 150; // 向左移动，留出触发按钮的空间
+        panelY = viewHeight / 4; // 垂直居中
+
+        panelPaint.setShader(new LinearGradient(
+            panelX, panelY,
+            panelX, panelY + panelHeight,
+            PANEL_TOP, PANEL_BOTTOM, Shader.TileMode.CLAMP));
+
+        if (itemBackgroundPaints.length != itemCount) {
+            itemBackgroundPaints = new Paint[itemCount];
+            for (int i = 0; i < itemCount; i++) {
+                itemBackgroundPaints[i] = new Paint();
+                itemBackgroundPaints[i].setAntiAlias(true);
+            }
+        }
+        int itemHeight = itemCount > 0 ? panelHeight / itemCount : 0;
+        for (int i = 0; i < itemCount; i++) {
+            float itemY = panelY + i * itemHeight;
+            itemBackgroundPaints[i].setShader(new LinearGradient(
+                panelX + 15, itemY + 8,
+                panelX + panelWidth - 15, itemY + itemHeight - 8,
+                LIGHT_BLUE, BLUE, Shader.TileMode.CLAMP));
+        }
+    }
+
+    private void createChatBubble() {
+        bubbleTextPaint.setAntiAlias(true);
+        bubbleTextPaint.setColor(Color.WHITE);
+        bubbleTextPaint.setTextSize(36); // 减小字体到36px
+        bubbleTextPaint.setTextAlign(Paint.Align.CENTER);
+        bubbleTextPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        bubbleTextPaint.setShadowLayer(2, 1, 1, DARK_BLUE); // 文字阴影
+
+        bubbleShadowPaint.setAntiAlias(true);
+        bubbleShadowPaint.setColor(Color.BLACK);
+        bubbleShadowPaint.setAlpha(50);
+        bubblePaint.setAntiAlias(true);
+        bubbleBorderPaint.setAntiAlias(true);
+        bubbleBorderPaint.setColor(DARK_BLUE); // 深蓝色边框
+        bubbleBorderPaint.setStyle(Paint.Style.STROKE);
+        bubbleBorderPaint.setStrokeWidth(3); // 减小边框宽度
+
+        // 气泡尖角 - 稍小的尖角
+        bubbleTriangle.moveTo(-15, 0);
+        bubbleTriangle.lineTo(0, 18);
+        bubbleTriangle.lineTo(15, 0);
+        bubbleTriangle.close();
+        float shadow = CHAT_BUBBLE_SHADOW_OFFSET;
+        bubbleShadowTriangle.moveTo(-15 + shadow, shadow);
+        bubbleShadowTriangle.lineTo(shadow, 18 + shadow);
+        bubbleShadowTriangle.lineTo(15 + shadow, shadow);
+        bubbleShadowTriangle.close();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.snakegame.ui.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import com.example.snakegame.data.model.Food;
+
+/**
+ * 按格子大小预先画好的精灵图集：第一行是三种食物，之后每种蛇的颜色一行（蛇头、蛇身）。
+ * 每个食物和每节蛇只需要一次 drawBitmap，不再每帧用图元和三角函数重新画。
+ * 格子大小变化时整张图重画；出现新的蛇颜色时在图集中追加一行，行数不够时扩容后重画。
+ * 每个精灵四周留1像素透明边，避免相邻的精灵在缩放取样时互相渗色。只在渲染线程中使用。
+ */
+final class SpriteAtlas {
+    private static final int GUTTER = 1;
+    private static final int COLUMNS = 3;
+    private static final int FOOD_ROW = 0;
+    private static final int HEAD_COLUMN = 0;
+    private static final int BODY_COLUMN = 1;
+    private static final Food.FoodType[] FOOD_TYPES = Food.FoodType.values();
+
+    private Bitmap bitmap;
+    private Canvas atlasCanvas;
+    private int cellSize;
+    private int slotSize;
+    // 已经画进图集的蛇颜色，第i种颜色在第i+1行
+    private int[] colors = new int[8];
+    private int colorCount;
+
+    // 绘制精灵用的画笔和复用的矩形
+    private final Paint spritePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect src = new Rect();
+    private final RectF dst = new RectF();
+
+    // 画进图集用的画笔和星形（中心在原点，半径为格子的1/3）
+    private final Paint shapePaint = new Paint();
+    private final Path starPath = new Path();
+
+    SpriteAtlas() {
+        shapePaint.setAntiAlias(true);
+        shapePaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * 格子大小变化或图集被释放后重画整张图，每帧绘制前调用
+     */
+    void update(int cellSize) {
+        if (cellSize == this.cellSize && bitmap != null) return;
+        this.cellSize = cellSize;
+        this.slotSize = cellSize + GUTTER * 2;
+        buildStar(cellSize / 3f);
+        rebuild(colors.length);
+    }
+
+    // 释放图集的位图，之后的第一次update会重画
+    void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            atlasCanvas = null;
+        }
+    }
+
+    /**
+     * 把食物画在以(left, top)为左上角的格子中
+     */
+    void drawFood(Canvas canvas, Food.FoodType type, float left, float top) {
+        spritePaint.setAlpha(255);
+        drawSprite(canvas, FOOD_ROW, type.ordinal(), left, top);
+    }
+
+    /**
+     * 把一节蛇画在以(left, top)为左上角的格子中，蛇身按alpha半透明
+     */
+    void drawSnakeSegment(Canvas canvas, int color, boolean isHead, int alpha, float left, float top) {
+        spritePaint.setAlpha(alpha);
+        drawSprite(canvas, rowForColor(color), isHead ? HEAD_COLUMN : BODY_COLUMN, left, top);
+    }
+
+    private void drawSprite(Canvas canvas, int row, int column, float left, float top) {
+        int slotX = column * slotSize + GUTTER;
+        int slotY = row * slotSize + GUTTER;
+        src.set(slotX, slotY, slotX + cellSize, slotY + cellSize);
+        dst.set(left, top, left + cellSize, top + cellSize);
+        canvas.drawBitmap(bitmap, src, dst, spritePaint);
+    }
+
+    // 颜色所在的行，第一次出现的颜色追加到图集中
+    private int rowForColor(int color) {
+        for (int i = 0; i < colorCount; i++) {
+            if (colors[i] == color) {
+                return i + 1;
+            }
+        }
+        if (colorCount == colors.length) {
+            int[] grown = new int[colors.length * 2];
+            System.arraycopy(colors, 0, grown, 0, colorCount);
+            colors = grown;
+            colors[colorCount++] = color;
+            rebuild(colors.length);
+        } else {
+            colors[colorCount++] = color;
+            drawSnakeRow(colorCount);
+        }
+        return colorCount;
+    }
+
+    // 按可以容纳colorCapacity种颜色的大小重建位图，并画入食物和已有的颜色
+    private void rebuild(int colorCapacity) {
+        release();
+        bitmap = Bitmap.createBitmap(COLUMNS * slotSize, (colorCapacity + 1) * slotSize, Bitmap.Config.ARGB_8888);
+        atlasCanvas = new Canvas(bitmap);
+        for (Food.FoodType type : FOOD_TYPES) {
+            drawFoodSprite(type);
+        }
+        for (int row = 1; row <= colorCount; row++) {
+            drawSnakeRow(row);
+        }
+    }
+
+    private void drawFoodSprite(Food.FoodType type) {
+        float centerX = type.ordinal() * slotSize + GUTTER + cellSize / 2f;
+        float centerY = FOOD_ROW * slotSize + GUTTER + cellSize / 2f;
+        Canvas canvas = atlasCanvas;
+        Paint paint = shapePaint;
+
+        // 根据食物类型绘制不同的形状
+        switch (type) {
+            case APPLE:
+                // 红色圆形苹果
+                paint.setColor(RenderResources.APPLE);
+                float appleRadius = cellSize / 3f;
+                canvas.drawCircle(centerX, centerY, appleRadius, paint);
+
+                // 绘制苹果的叶子（绿色小矩形）
+                paint.setColor(RenderResources.APPLE_LEAF);
+                float leafSize = cellSize / 8f;
+                canvas.drawRect(centerX - leafSize/2, centerY - appleRadius - leafSize,
+                               centerX + leafSize/2, centerY - appleRadius, paint);
+                break;
+
+            case GOOD_FOOD:
+                // 金色五角星
+                paint.setColor(RenderResources.GOOD_FOOD);
+                canvas.save();
+                canvas.translate(centerX, centerY);
+                canvas.drawPath(starPath, paint);
+                canvas.restore();
+                break;
+
+            case BAD_FOOD:
+                // 紫色骷髅头
+                paint.setColor(RenderResources.BAD_FOOD);
+                float skullRadius = cellSize / 3f;
+                canvas.drawCircle(centerX, centerY, skullRadius, paint);
+
+                // 绘制眼睛
+                paint.setColor(Color.BLACK);
+                float eyeRadius = cellSize / 12f;
+                canvas.drawCircle(centerX - skullRadius/2, centerY - skullRadius/3, eyeRadius, paint);
+                canvas.drawCircle(centerX + skullRadius/2, centerY - skullRadius/3, eyeRadius, paint);
+
+                // 绘制嘴巴
+                canvas.drawRect(centerX - skullRadius/3, centerY + skullRadius/4,
+                               centerX + skullRadius/3, centerY + skullRadius/2, paint);
+                break;
+        }
+    }
+
+    // 画第row行的蛇头和蛇身，都是不透明的，蛇身的透明度在绘制精灵时设置
+    private void drawSnakeRow(int row) {
+        int color = colors[row - 1] | 0xFF000000;
+        float top = row * slotSize + GUTTER;
+        shapePaint.setColor(color);
+
+        // 蛇头：圆角较大，内缩1像素
+        float left = HEAD_COLUMN * slotSize + GUTTER;
+        atlasCanvas.drawRoundRect(
+            left + 1,
+            top + 1,
+            left + cellSize - 1,
+            top + cellSize - 1,
+            cellSize * 0.2f, cellSize * 0.2f,
+            shapePaint
+        );
+
+        // 蛇身：内缩3像素
+        left = BODY_COLUMN * slotSize + GUTTER;
+        atlasCanvas.drawRoundRect(
+            left + 3,
+            top + 3,
+            left + cellSize - 3,
+            top + cellSize - 3,
+            cellSize * 0.15f, cellSize * 0.15f,
+            shapePaint
+        );
+    }
+
+    private void buildStar(float radius) {
+        // 五个外部点和五个内部点
+        starPath.reset();
+        for (int i = 0; i < 10; i++) {
+            double angle = Math.PI * i / 5.0;
+            float r = (i % 2 == 0) ? radius : radius * 0.5f;
+            float x = (float) (r * Math.cos(angle - Math.PI / 2));
+            float y = (float) (r * Math.sin(angle - Math.PI / 2));
+            if (i == 0) {
+                starPath.moveTo(x, y);
+            } else {
+                starPath.lineTo(x, y);
+            }
+        }
+        starPath.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.snakegame;
+
+import com.example.snakegame.data.model.Direction;
+import com.example.snakegame.data.model.GameWorld;
+import com.example.snakegame.data.model.Snake;
+import com.example.snakegame.engine.GameEngine;
+import com.example.snakegame.engine.InputQueue;
+import com.example.snakegame.engine.SnapshotBuffer;
+import java.lang.management.ManagementFactory;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 稳定运行时tick和快照发布不应分配任何对象（用线程分配字节数统计）。
+ * 玩家绕圈并避开墙和其他蛇，保证统计期间世界中有活着的蛇在移动、吃食物，而不是一个空世界。
+ */
+public class GameEngineAllocationTest {
+    private static final long SEED = 7L;
+    private static final int WARMUP_TICKS = 10_000;
+    private static final int MEASURED_TICKS = 20_000;
+    private static final Direction[] LOOP = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    @Test
+    public void steadyStateTicks_allocateNothing() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        GameEngine engine = new GameEngine();
+        engine.setViewportSize(20, 30);
+        GameWorld world = engine.createWorld("1", "me", "#00FF00", SEED);
+        InputQueue input = engine.getInputQueue("1");
+        SnapshotBuffer snapshots = new SnapshotBuffer();
+
+        // 预热：让JIT编译、对象池和各种数组的容量稳定下来
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            step(engine, world, input, snapshots, i);
+        }
+
+        assertTrue("player must be alive when measurement starts", world.getMySnake().isAlive());
+        int createdFoods = engine.getFoodPool().getCreatedCount();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = WARMUP_TICKS; i < WARMUP_TICKS + MEASURED_TICKS; i++) {
+            step(engine, world, input, snapshots, i);
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // 死亡不可恢复，结束时还活着说明整个统计期间玩家都在移动
+        assertTrue("player must stay alive while measuring", world.getMySnake().isAlive());
+        assertEquals("bytes allocated in " + MEASURED_TICKS + " ticks", 0, allocated);
+        assertEquals(createdFoods, engine.getFoodPool().getCreatedCount());
+    }
+
+    // 玩家沿正方形绕圈，前方的格子危险时改走其他安全的方向；每帧发布一次快照
+    private static void step(GameEngine engine, GameWorld world, InputQueue input,
+                             SnapshotBuffer snapshots, int tick) {
+        Snake me = world.getMySnake();
+        if (me.isAlive()) {
+            Direction current = me.getDirection();
+            Direction next = tick % 20 == 0 ? LOOP[(tick / 20) % LOOP.length] : current;
+            if (next.isOpposite(current) || isDangerous(world, me, next)) {
+                next = current;
+            }
+            for (int i = 0; i < LOOP.length && isDangerous(world, me, next); i++) {
+                if (!LOOP[i].isOpposite(current)) {
+                    next = LOOP[i];
+                }
+            }
+            if (next != current) {
+                input.offer(next);
+            }
+        }
+        engine.tick();
+        snapshots.publish(world);
+    }
+
+    // 下一格在地图外、有其他蛇的身体，或者与其他蛇的蛇头相邻（可能同时进入同一格）
+    private static boolean isDangerous(GameWorld world, Snake me, Direction direction) {
+        int x = me.getHeadX() + direction.getDx();
+        int y = me.getHeadY() + direction.getDy();
+        if (x < 0 || x >= world.getWorldMapCols() || y < 0 || y >= world.getWorldMapRows()
+                || world.hasOtherSnakeAt(x, y, me)) {
+            return true;
+        }
+        for (int i = 0; i < world.getOtherSnakes().size(); i++) {
+            Snake other = world.getOtherSnakes().get(i);
+            if (other.isAlive() && other.getLength() > 0
+                    && Math.abs(other.getHeadX() - x) + Math.abs(other.getHeadY() - y) <= 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
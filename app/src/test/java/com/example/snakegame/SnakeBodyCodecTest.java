@@ -0,0 +1,64 @@
+package com.example.snakegame;
+
+import com.example.snakegame.data.model.PackedPoint;
+import com.example.snakegame.data.model.Point;
+import com.example.snakegame.data.model.Snake;
+import com.example.snakegame.data.model.SnakeBodyCodec;
+import com.example.snakegame.network.NetworkMessage;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 蛇身编码往返：相邻的蛇身用游程编码，有不相邻两节的蛇身退回逐节编码，都不丢失。
+ */
+public class SnakeBodyCodecTest {
+
+    @Test
+    public void contiguousBody_roundTripsAsRle() {
+        Snake snake = snakeWith(new Point(5, 5), new Point(4, 5), new Point(3, 5), new Point(3, 6), new Point(3, 7));
+        assertTrue(snake.getRleBody().isValid());
+        byte[] bytes = SnakeBodyCodec.encode(snake);
+
+        assertEquals(SnakeBodyCodec.FORMAT_RLE, bytes[0]);
+        assertArrayEquals(segments(snake), SnakeBodyCodec.decode(bytes));
+    }
+
+    @Test
+    public void nonContiguousBody_fallsBackToPointsAndRoundTrips() {
+        Snake snake = snakeWith(new Point(10, 10), new Point(9, 10), new Point(2, 3), new Point(-4, 3));
+        assertFalse(snake.getRleBody().isValid());
+
+        NetworkMessage message = NetworkMessage.createSnakeUpdate("1", "me", snake);
+        byte[] bytes = (byte[]) message.getData();
+
+        assertNotNull(bytes);
+        assertEquals(SnakeBodyCodec.FORMAT_POINTS, bytes[0]);
+        assertArrayEquals(segments(snake), message.getSnakeBody());
+    }
+
+    @Test
+    public void malformedBytes_decodeToNull() {
+        Snake snake = snakeWith(new Point(10, 10), new Point(2, 3));
+        byte[] bytes = SnakeBodyCodec.encode(snake);
+
+        assertNull(SnakeBodyCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertNull(SnakeBodyCodec.decode(new byte[] {7}));
+        assertNull(SnakeBodyCodec.decode(new byte[0]));
+    }
+
+    private static Snake snakeWith(Point... points) {
+        Snake snake = new Snake();
+        snake.setBodyPoints(Arrays.asList(points));
+        return snake;
+    }
+
+    private static int[] segments(Snake snake) {
+        int[] packed = new int[snake.getLength()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = PackedPoint.pack(snake.getSegmentX(i), snake.getSegmentY(i));
+        }
+        return packed;
+    }
+}
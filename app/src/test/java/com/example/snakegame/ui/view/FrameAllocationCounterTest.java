@@ -0,0 +1,110 @@
+package com.example.snakegame.ui.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 预热之后分配了对象的帧应该记为违规，预热期间和没有分配时不记；Surface变化后重新预热。
+ */
+public class FrameAllocationCounterTest {
+
+    // 每帧返回预先设置的分配数
+    private static final class FakeSource implements FrameAllocationCounter.AllocationSource {
+        int allocations;
+        boolean started;
+
+        @Override
+        public void start() {
+            started = true;
+        }
+
+        @Override
+        public void stop() {
+            started = false;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public int count() {
+            return allocations;
+        }
+    }
+
+    @Test
+    public void warmUpAllocations_areAllowed() {
+        FakeSource source = new FakeSource();
+        FrameAllocationCounter counter = new FrameAllocationCounter(source);
+        counter.start();
+        source.allocations = 5;
+        for (int i = 0; i < FrameAllocationCounter.WARM_UP_FRAMES; i++) {
+            counter.beginFrame();
+            counter.endFrame();
+        }
+        assertEquals(5, counter.getLastFrameAllocations());
+    }
+
+    @Test
+    public void steadyStateFrameWithoutAllocations_passes() {
+        FakeSource source = new FakeSource();
+        FrameAllocationCounter counter = new FrameAllocationCounter(source);
+        counter.start();
+        for (int i = 0; i < FrameAllocationCounter.WARM_UP_FRAMES + 10; i++) {
+            counter.beginFrame();
+            counter.endFrame();
+        }
+        assertEquals(0, counter.getLastFrameAllocations());
+    }
+
+    @Test
+    public void steadyStateFrameWithAllocations_isCounted() {
+        FakeSource source = new FakeSource();
+        FrameAllocationCounter counter = new FrameAllocationCounter(source);
+        counter.start();
+        for (int i = 0; i < FrameAllocationCounter.WARM_UP_FRAMES; i++) {
+            counter.beginFrame();
+            counter.endFrame();
+        }
+        assertEquals(0, counter.getViolationFrames());
+        source.allocations = 1;
+        counter.beginFrame();
+        counter.endFrame();
+        assertEquals(1, counter.getViolationFrames());
+    }
+
+    @Test
+    public void restartWarmUp_allowsAllocationsAgain() {
+        FakeSource source = new FakeSource();
+        FrameAllocationCounter counter = new FrameAllocationCounter(source);
+        counter.start();
+        for (int i = 0; i < FrameAllocationCounter.WARM_UP_FRAMES + 10; i++) {
+            counter.beginFrame();
+            counter.endFrame();
+        }
+        counter.restartWarmUp();
+        source.allocations = 3;
+        for (int i = 0; i < FrameAllocationCounter.WARM_UP_FRAMES; i++) {
+            counter.beginFrame();
+            counter.endFrame();
+        }
+        assertEquals(0, counter.getViolationFrames());
+        counter.beginFrame();
+        counter.endFrame();
+        assertEquals(1, counter.getViolationFrames());
+    }
+
+    @Test
+    public void disabledCounter_neverFails() {
+        FrameAllocationCounter counter = new FrameAllocationCounter(false);
+        counter.start();
+        for (int i = 0; i < FrameAllocationCounter.WARM_UP_FRAMES + 10; i++) {
+            counter.beginFrame();
+            counter.endFrame();
+        }
+        assertEquals(0, counter.getLastFrameAllocations());
+        counter.stop();
+    }
+}